@@ -0,0 +1,44 @@
+package com.example.momentum;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * One point of a {@link ParameterGrid}: the strategy parameters of a backtest.
+ *
+ * @param slowKeepRankMultiplier only used by {@link RotationSpeed#SLOW}, 0 for FAST
+ * @param lookbackDays           lookbacks of the score mode: three for RS_COMBINED, one for
+ *                               RETURN_6M, none for TV_TECHNICAL
+ */
+public record BacktestConfig(ScoreMode scoreMode,
+                             List<Integer> lookbackDays,
+                             RotationSpeed rotationSpeed,
+                             int topN,
+                             int maPeriod,
+                             int slowKeepRankMultiplier) {
+
+    public BacktestConfig {
+        lookbackDays = List.copyOf(lookbackDays);
+    }
+
+    /**
+     * Score mode and lookbacks; configs with the same key rank on the same scores.
+     */
+    public String scoreKey() {
+        return lookbackDays.isEmpty() ? scoreMode.name() : scoreMode + "(" + lookbacksLabel() + ")";
+    }
+
+    public String lookbacksLabel() {
+        return lookbackDays.stream().map(String::valueOf).collect(Collectors.joining("/"));
+    }
+
+    public int[] lookbackArray() {
+        return lookbackDays.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    @Override
+    public String toString() {
+        String keep = rotationSpeed == RotationSpeed.SLOW ? " keep=" + slowKeepRankMultiplier : "";
+        return scoreKey() + " " + rotationSpeed + " top=" + topN + " ma=" + maPeriod + keep;
+    }
+}
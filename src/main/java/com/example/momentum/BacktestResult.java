@@ -0,0 +1,43 @@
+package com.example.momentum;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+/**
+ * Equity curve of one backtest with its summary statistics.
+ *
+ * @param cagr             compound annual growth rate, 0.08 = 8% a year
+ * @param maxDrawdown      largest peak-to-trough loss of the curve, 0.25 = 25%
+ * @param annualTurnover   one-way turnover per year, 1.0 = the whole portfolio replaced once a year
+ */
+public record BacktestResult(EquityCurve curve, double cagr, double maxDrawdown, double annualTurnover) {
+
+    /**
+     * @param start         date the initial capital was invested; null if the backtest had no period
+     * @param totalTurnover summed one-way turnover of all rebalances after the first
+     */
+    public static BacktestResult of(LocalDate start, double initialCapital, EquityCurve curve, double totalTurnover) {
+        List<Double> equity = curve.equity();
+        if (start == null || equity.isEmpty()) {
+            return new BacktestResult(curve, 0.0, 0.0, 0.0);
+        }
+
+        double years = ChronoUnit.DAYS.between(start, curve.dates().get(curve.dates().size() - 1)) / 365.25;
+        double finalEquity = equity.get(equity.size() - 1);
+        double cagr = years > 0 ? Math.pow(finalEquity / initialCapital, 1.0 / years) - 1.0 : 0.0;
+
+        double peak = initialCapital;
+        double maxDrawdown = 0.0;
+        for (double e : equity) {
+            peak = Math.max(peak, e);
+            maxDrawdown = Math.max(maxDrawdown, 1.0 - e / peak);
+        }
+
+        return new BacktestResult(curve, cagr, maxDrawdown, years > 0 ? totalTurnover / years : 0.0);
+    }
+
+    public double finalEquity(double initialCapital) {
+        return curve.equity().isEmpty() ? initialCapital : curve.equity().get(curve.equity().size() - 1);
+    }
+}
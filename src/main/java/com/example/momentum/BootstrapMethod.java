@@ -0,0 +1,13 @@
+package com.example.momentum;
+
+/**
+ * How {@link MonteCarloBootstrap} resamples the period returns of a backtest. Both draw
+ * consecutive runs of periods (wrapping around at the end), so momentum and volatility clusters
+ * within a run are kept.
+ */
+public enum BootstrapMethod {
+    /** Runs of random length, geometric with the given mean (Politis and Romano). */
+    STATIONARY,
+    /** Runs of exactly the given length. */
+    BLOCK
+}
@@ -1,8 +1,8 @@
 package com.example.momentum;
 
 import java.time.LocalDate;
+import java.util.Arrays;
 import java.util.Optional;
-import java.util.OptionalDouble;
 
 /**
  * Computes a combined momentum / relative-strength score as the average of
@@ -23,28 +23,91 @@ public class CombinedMomentumCalculator implements ScoreCalculator {
 
     @Override
     public Optional<ScoreSnapshot> computeScore(EtfHistory history, LocalDate asOfDate) {
-        OptionalDouble closeTodayOpt = history.getCloseOnOrBefore(asOfDate);
-        if (closeTodayOpt.isEmpty()) return Optional.empty();
-        double cToday = closeTodayOpt.getAsDouble();
+        double[] out = new double[4];
+        if (!computeScoreInto(history, asOfDate, out)) return Optional.empty();
+        return Optional.of(ScoreCalculator.snapshotOf(out));
+    }
+
+    @Override
+    public boolean computeScoreInto(EtfHistory history, LocalDate asOfDate, double[] out) {
+        long asOf = asOfDate.toEpochDay();
+        int today = history.indexOnOrBefore(asOf);
+        if (today < 0) return false;
+        double cToday = history.close(today);
 
         double sum = 0.0;
         int count = 0;
 
         for (int lb : lookbackDays) {
-            LocalDate lookbackDate = asOfDate.minusDays(lb);
-            OptionalDouble closeLookbackOpt = history.getCloseOnOrBefore(lookbackDate);
-            if (closeLookbackOpt.isEmpty()) continue;
-            double cPast = closeLookbackOpt.getAsDouble();
-            if (cPast <= 0.0) continue;
-
-            double ret = (cToday / cPast) - 1.0; // fractional return
-            sum += ret;
+            int past = history.indexOnOrBefore(asOf - lb);
+            if (!usable(history, past)) continue;
+            sum += (cToday / history.close(past)) - 1.0; // fractional return
             count++;
         }
 
-        if (count == 0) return Optional.empty();
+        return store(sum, count, out);
+    }
+
+    /**
+     * One sweep over the history: the bar indices of the as-of date and of every lookback date
+     * only move forward.
+     */
+    @Override
+    public void computeScores(EtfHistory history, ScoreMatrix matrix, int symbol) {
+        int[] days = matrix.epochDays();
+        double[] out = new double[4];
+        int today = -1;
+        int[] past = new int[lookbackDays.length];
+        Arrays.fill(past, -1);
+
+        for (int row = 0; row < days.length; row++) {
+            today = history.indexOnOrBefore(days[row], today);
+            for (int k = 0; k < lookbackDays.length; k++) {
+                past[k] = history.indexOnOrBefore((long) days[row] - lookbackDays[k], past[k]);
+            }
+            if (scoreAt(history, today, past, out)) {
+                matrix.set(row, symbol, out);
+            }
+        }
+    }
+
+    int[] lookbackDays() {
+        return lookbackDays;
+    }
+
+    /**
+     * Score from bar indices already looked up: {@code today} for the as-of date, {@code past[k]}
+     * for the date {@code lookbackDays[k]} days earlier (-1 if none).
+     */
+    boolean scoreAt(EtfHistory history, int today, int[] past, double[] out) {
+        if (today < 0) return false;
+        double cToday = history.close(today);
+
+        double sum = 0.0;
+        int count = 0;
+        for (int p : past) {
+            if (!usable(history, p)) continue;
+            sum += (cToday / history.close(p)) - 1.0;
+            count++;
+        }
+        return store(sum, count, out);
+    }
+
+    private static boolean usable(EtfHistory history, int past) {
+        if (past < 0) return false;
+        double cPast = history.close(past);
+        if (cPast <= 0.0) return false;
+        return true;
+    }
+
+    private static boolean store(double sum, int count, double[] out) {
+        if (count == 0) return false;
 
         double avg = sum / count;
-        return Optional.of(ScoreSnapshot.single(avg));
+        out[SCORE] = avg;
+        out[DAILY] = avg;
+        out[WEEKLY] = Double.NaN;
+        out[MONTHLY] = Double.NaN;
+        return true;
     }
 }
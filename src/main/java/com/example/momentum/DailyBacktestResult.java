@@ -0,0 +1,10 @@
+package com.example.momentum;
+
+/**
+ * Result of {@link RelativeStrengthBacktester#runDailyBacktest}.
+ *
+ * @param result       daily equity curve and its statistics
+ * @param tradingDays  number of days in the curve
+ * @param riskSwitches risk-on/off switches between month ends
+ */
+public record DailyBacktestResult(BacktestResult result, int tradingDays, int riskSwitches) {}
@@ -1,24 +1,25 @@
-
 package com.example.momentum;
 
 import java.time.LocalDate;
-import java.time.YearMonth;
 import java.util.*;
-import java.util.stream.Collectors;
 
 public class DateUtils {
 
     public static List<LocalDate> monthEndTradingDays(EtfHistory reference) {
-        Map<YearMonth, LocalDate> monthToLastTradingDay = new HashMap<>();
-
-        for (PriceBar bar : reference.getBars()) {
-            YearMonth ym = YearMonth.from(bar.date());
-            monthToLastTradingDay.merge(ym, bar.date(),
-                    (oldDate, newDate) -> newDate.isAfter(oldDate) ? newDate : oldDate);
+        // Bars are sorted ascending, so a month ends wherever the next bar falls in another month.
+        List<LocalDate> monthEnds = new ArrayList<>();
+        int n = reference.size();
+        for (int i = 0; i < n; i++) {
+            LocalDate d = reference.date(i);
+            if (i == n - 1) {
+                monthEnds.add(d);
+                continue;
+            }
+            LocalDate next = reference.date(i + 1);
+            if (next.getMonthValue() != d.getMonthValue() || next.getYear() != d.getYear()) {
+                monthEnds.add(d);
+            }
         }
-
-        return monthToLastTradingDay.values().stream()
-                                    .sorted()
-                                    .collect(Collectors.toList());
+        return monthEnds;
     }
 }
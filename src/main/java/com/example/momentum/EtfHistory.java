@@ -1,44 +1,378 @@
-
 package com.example.momentum;
 
 import java.time.LocalDate;
 import java.util.*;
 import java.util.OptionalDouble;
 
+/**
+ * Daily price history of a single symbol.
+ *
+ * Bars are stored column-wise (epoch-day {@code int[]} plus one {@code double[]} per OHLCV field)
+ * instead of as one {@link PriceBar} object per day, which keeps large universes compact on the
+ * heap and lets as-of lookups use a binary search on the date column.
+ *
+ * A history can be a view on a contiguous range of another history's columns (see
+ * {@link #from(LocalDate)}, {@link #until(LocalDate)}); views share the underlying arrays.
+ *
+ * A <em>sampled</em> history only holds the bars needed for as-of close lookups at certain dates
+ * (e.g. month-end and lookback closes computed in the DB). Its close lookups are exact for those
+ * dates, but it is not a contiguous daily series, so daily indicators (SMA, ATR) are unavailable.
+ */
 public class EtfHistory {
     private final String symbol;
-    private final List<PriceBar> bars; // sorted ascending by date
+
+    // Columns are sorted ascending by date; this history exposes [offset, offset + size).
+    private final int[] epochDays;
+    private final double[] open;
+    private final double[] high;
+    private final double[] low;
+    private final double[] close;
+    private final double[] volume;
+    private final int offset;
+    private final int size;
+    private final boolean sampled;
+
+    // Pre-aggregated weekly/monthly bars of this history (e.g. resampled in SQL), see TvResampler
+    private final Map<TvResampler.PeriodType, EtfHistory> resampled = new EnumMap<>(TvResampler.PeriodType.class);
+
+    // History that owns the columns (this one if it is not a view); views share its window sums
+    private final EtfHistory root;
+
+    // Built on first use, see windowSums()
+    private volatile WindowSums windowSums;
 
     public EtfHistory(String symbol, List<PriceBar> bars) {
+        List<PriceBar> sorted = new ArrayList<>(bars);
+        sorted.sort(Comparator.comparing(PriceBar::date));
+
+        int n = sorted.size();
         this.symbol = symbol;
-        this.bars = new ArrayList<>(bars);
-        this.bars.sort(Comparator.comparing(PriceBar::date));
+        this.epochDays = new int[n];
+        this.open = new double[n];
+        this.high = new double[n];
+        this.low = new double[n];
+        this.close = new double[n];
+        this.volume = new double[n];
+        this.offset = 0;
+        this.size = n;
+        this.sampled = false;
+        this.root = this;
+
+        for (int i = 0; i < n; i++) {
+            PriceBar b = sorted.get(i);
+            epochDays[i] = (int) b.date().toEpochDay();
+            open[i] = b.open();
+            high[i] = b.high();
+            low[i] = b.low();
+            close[i] = b.close();
+            volume[i] = b.volume();
+        }
+    }
+
+    private EtfHistory(String symbol, int[] epochDays, double[] open, double[] high, double[] low,
+                       double[] close, double[] volume, int offset, int size, boolean sampled, EtfHistory root) {
+        this.symbol = symbol;
+        this.epochDays = epochDays;
+        this.open = open;
+        this.high = high;
+        this.low = low;
+        this.close = close;
+        this.volume = volume;
+        this.offset = offset;
+        this.size = size;
+        this.sampled = sampled;
+        this.root = root != null ? root : this;
+    }
+
+    /**
+     * Wraps already columnar data without copying. All arrays must have the same length and
+     * {@code epochDays} must be sorted ascending; the caller must not modify the arrays afterwards.
+     */
+    public static EtfHistory ofColumns(String symbol, int[] epochDays, double[] open, double[] high,
+                                       double[] low, double[] close, double[] volume) {
+        int n = epochDays.length;
+        if (open.length != n || high.length != n || low.length != n || close.length != n || volume.length != n) {
+            throw new IllegalArgumentException("Column lengths differ for " + symbol);
+        }
+        for (int i = 1; i < n; i++) {
+            if (epochDays[i] < epochDays[i - 1]) {
+                throw new IllegalArgumentException("Dates are not sorted ascending for " + symbol);
+            }
+        }
+        return new EtfHistory(symbol, epochDays, open, high, low, close, volume, 0, n, false, null);
+    }
+
+    /**
+     * Accumulates bars (in ascending date order) straight into primitive columns.
+     */
+    public static final class Builder {
+        private final String symbol;
+        private int[] days;
+        private double[] open;
+        private double[] high;
+        private double[] low;
+        private double[] close;
+        private double[] volume;
+        private int size;
+
+        public Builder(String symbol) {
+            this(symbol, 256);
+        }
+
+        public Builder(String symbol, int initialCapacity) {
+            int cap = Math.max(1, initialCapacity);
+            this.symbol = symbol;
+            this.days = new int[cap];
+            this.open = new double[cap];
+            this.high = new double[cap];
+            this.low = new double[cap];
+            this.close = new double[cap];
+            this.volume = new double[cap];
+        }
+
+        public Builder add(int epochDay, double o, double h, double l, double c, double v) {
+            if (size == days.length) {
+                int cap = days.length * 2;
+                days = Arrays.copyOf(days, cap);
+                open = Arrays.copyOf(open, cap);
+                high = Arrays.copyOf(high, cap);
+                low = Arrays.copyOf(low, cap);
+                close = Arrays.copyOf(close, cap);
+                volume = Arrays.copyOf(volume, cap);
+            }
+            days[size] = epochDay;
+            open[size] = o;
+            high[size] = h;
+            low[size] = l;
+            close[size] = c;
+            volume[size] = v;
+            size++;
+            return this;
+        }
+
+        public String symbol() {
+            return symbol;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public EtfHistory build() {
+            return ofColumns(symbol,
+                    Arrays.copyOf(days, size),
+                    Arrays.copyOf(open, size),
+                    Arrays.copyOf(high, size),
+                    Arrays.copyOf(low, size),
+                    Arrays.copyOf(close, size),
+                    Arrays.copyOf(volume, size));
+        }
     }
 
     public String getSymbol() {
         return symbol;
     }
 
+    /**
+     * True if this history only holds sampled bars (see class comment), not the full daily series.
+     */
+    public boolean isSampled() {
+        return sampled;
+    }
+
+    /**
+     * Same bars, marked as a sampled (non-daily) history. No data is copied.
+     */
+    public EtfHistory asSampled() {
+        return sampled ? this : new EtfHistory(symbol, epochDays, open, high, low, close, volume, offset, size, true, root);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Pre-aggregated bars for {@code type} attached with {@link #setResampled}, or null.
+     * Each bar is dated on the last trading day of its period.
+     */
+    public synchronized EtfHistory getResampled(TvResampler.PeriodType type) {
+        return resampled.get(type);
+    }
+
+    public synchronized void setResampled(TvResampler.PeriodType type, EtfHistory bars) {
+        resampled.put(type, bars);
+    }
+
+    /**
+     * Running close totals for O(1) window sums (SMA). Built once over the underlying columns on
+     * first use; views share them and only shift the indices.
+     */
+    public WindowSums windowSums() {
+        WindowSums sums = windowSums;
+        if (sums == null) {
+            sums = root == this ? new WindowSums(close) : root.windowSums().view(offset);
+            windowSums = sums; // racing threads build identical sums
+        }
+        return sums;
+    }
+
+    /**
+     * Read-only list view of the bars. Elements are materialized on access, so prefer the
+     * indexed accessors ({@link #close(int)}, ...) in hot loops.
+     */
     public List<PriceBar> getBars() {
-        return Collections.unmodifiableList(bars);
+        return new BarListView();
     }
 
-    public OptionalDouble getCloseOnOrBefore(LocalDate date) {
-        Optional<PriceBar> barOpt = bars.stream()
-                .filter(b -> !b.date().isAfter(date))
-                .max(Comparator.comparing(PriceBar::date));
+    public int epochDay(int index) {
+        return epochDays[offset + checkIndex(index)];
+    }
 
-        if (barOpt.isEmpty()) {
+    public LocalDate date(int index) {
+        return LocalDate.ofEpochDay(epochDay(index));
+    }
+
+    public double open(int index) {
+        return open[offset + checkIndex(index)];
+    }
+
+    public double high(int index) {
+        return high[offset + checkIndex(index)];
+    }
+
+    public double low(int index) {
+        return low[offset + checkIndex(index)];
+    }
+
+    public double close(int index) {
+        return close[offset + checkIndex(index)];
+    }
+
+    public double volume(int index) {
+        return volume[offset + checkIndex(index)];
+    }
+
+    public PriceBar bar(int index) {
+        int i = offset + checkIndex(index);
+        return new PriceBar(LocalDate.ofEpochDay(epochDays[i]), open[i], high[i], low[i], close[i], volume[i]);
+    }
+
+    /**
+     * Index of the last bar dated on or before {@code date}, or -1 if there is none.
+     */
+    public int indexOnOrBefore(LocalDate date) {
+        return indexOnOrBefore(date.toEpochDay());
+    }
+
+    public int indexOnOrBefore(long epochDay) {
+        int lo = offset;
+        int hi = offset + size - 1;
+        int found = -1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (epochDays[mid] <= epochDay) {
+                found = mid;
+                lo = mid + 1;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return found < 0 ? -1 : found - offset;
+    }
+
+    /**
+     * Same as {@link #indexOnOrBefore(long)} when walking forward in time: {@code from} is the
+     * result for an earlier day (or -1), and the search only moves forward from there.
+     */
+    public int indexOnOrBefore(long epochDay, int from) {
+        int i = from;
+        while (i + 1 < size && epochDays[offset + i + 1] <= epochDay) {
+            i++;
+        }
+        return i;
+    }
+
+    public OptionalDouble getCloseOnOrBefore(LocalDate date) {
+        int idx = indexOnOrBefore(date);
+        if (idx < 0) {
             return OptionalDouble.empty();
         }
-        return OptionalDouble.of(barOpt.get().close());
+        return OptionalDouble.of(close[offset + idx]);
+    }
+
+    /**
+     * View on the bars dated on or after {@code startInclusive}. No data is copied.
+     */
+    public EtfHistory from(LocalDate startInclusive) {
+        int first = indexOnOrBefore(startInclusive.toEpochDay() - 1) + 1;
+        return slice(first, size);
+    }
+
+    /**
+     * View on the bars dated on or before {@code endInclusive}. No data is copied.
+     */
+    public EtfHistory until(LocalDate endInclusive) {
+        return slice(0, indexOnOrBefore(endInclusive) + 1);
+    }
+
+    /**
+     * View on the bars with index in [fromIndex, toIndex). No data is copied.
+     */
+    public EtfHistory slice(int fromIndex, int toIndex) {
+        if (fromIndex < 0 || toIndex > size || fromIndex > toIndex) {
+            throw new IndexOutOfBoundsException("slice [" + fromIndex + ", " + toIndex + ") of " + size);
+        }
+        if (fromIndex == 0 && toIndex == size) {
+            return this;
+        }
+        return new EtfHistory(symbol, epochDays, open, high, low, close, volume, offset + fromIndex, toIndex - fromIndex, sampled, root);
     }
 
     public LocalDate getFirstDate() {
-        return bars.get(0).date();
+        return date(0);
     }
 
     public LocalDate getLastDate() {
-        return bars.get(bars.size() - 1).date();
+        return date(size - 1);
+    }
+
+    // Raw columns for the indicator kernels in this package; bar i of this history is at columnIndex(i).
+    double[] highColumn() {
+        return high;
+    }
+
+    double[] lowColumn() {
+        return low;
+    }
+
+    double[] closeColumn() {
+        return close;
+    }
+
+    int columnIndex(int index) {
+        return offset + checkIndex(index);
+    }
+
+    private int checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size);
+        }
+        return index;
+    }
+
+    private final class BarListView extends AbstractList<PriceBar> implements RandomAccess {
+        @Override
+        public PriceBar get(int index) {
+            return bar(index);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
     }
 }
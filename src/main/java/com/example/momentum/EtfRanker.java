@@ -2,38 +2,209 @@ package com.example.momentum;
 
 import java.time.LocalDate;
 import java.util.*;
-import java.util.stream.Collectors;
 
-public class EtfRanker {
+/**
+ * Scores every symbol of the universe as of a date and sorts them by score, best first; equal
+ * scores are ordered by symbol.
+ *
+ * With a parallel {@link RankingExecutor}, {@code parallelism} workers take symbols from a shared
+ * queue ({@link RankingWorkers}), longest histories first so the most expensive symbols do not end
+ * up last. The result does not depend on the executor. The calculator must be thread-safe. A
+ * parallel ranker owns its worker pool; {@link #close()} shuts it down.
+ */
+public class EtfRanker implements AutoCloseable {
+
+    // best score first, equal scores by symbol
+    static final Comparator<RankedEtf> RANK_ORDER =
+            Comparator.comparingDouble(RankedEtf::score).reversed().thenComparing(RankedEtf::symbol);
+
+    private static final Comparator<EtfHistory> LONGEST_FIRST =
+            Comparator.comparingInt(EtfHistory::size).reversed().thenComparing(EtfHistory::getSymbol);
 
     private final ScoreCalculator calculator;
     private final ScoreMode mode;
+    private final RankingWorkers workers;
 
     public EtfRanker(ScoreCalculator calculator, ScoreMode mode) {
+        this(calculator, mode, RankingExecutor.SEQUENTIAL, 1);
+    }
+
+    /**
+     * @param parallelism number of symbols scored at the same time (ignored when sequential)
+     */
+    public EtfRanker(ScoreCalculator calculator, ScoreMode mode, RankingExecutor executor, int parallelism) {
         this.calculator = calculator;
         this.mode = mode;
+        this.workers = new RankingWorkers(executor, parallelism);
     }
 
     public ScoreMode getMode() {
         return mode;
     }
 
+    /**
+     * Shuts down the worker pool, if any. Rankings already running finish; the ranker must not be
+     * used afterwards.
+     */
+    @Override
+    public void close() {
+        workers.close();
+    }
+
     public List<RankedEtf> rank(Map<String, EtfHistory> universe, LocalDate asOfDate) {
-        List<RankedEtf> list = new ArrayList<>();
-
-        for (EtfHistory history : universe.values()) {
-            calculator.computeScore(history, asOfDate)
-                    .ifPresent(snapshot -> list.add(new RankedEtf(
-                            history.getSymbol(),
-                            snapshot.score(),
-                            snapshot.daily(),
-                            snapshot.weekly(),
-                            snapshot.monthly()
-                    )));
+        return rank(universe, asOfDate, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Ranking in which only the first {@code exactTop} positions are guaranteed; symbols further
+     * down are in the right order relative to them but may be ordered by partial scores among
+     * themselves. For TV_TECHNICAL this evaluates lazily (see {@link #rankTvLazily}); other modes
+     * always rank fully.
+     */
+    public List<RankedEtf> rank(Map<String, EtfHistory> universe, LocalDate asOfDate, int exactTop) {
+        EtfHistory[] histories = universe.values().toArray(new EtfHistory[0]);
+        Arrays.sort(histories, LONGEST_FIRST);
+
+        List<RankedEtf> list = calculator instanceof TvTechnicalScoreCalculator tv && exactTop < histories.length
+                ? rankTvLazily(tv, histories, asOfDate, Math.max(1, exactTop))
+                : rankFully(histories, asOfDate);
+        list.sort(RANK_ORDER);
+        return list;
+    }
+
+    /**
+     * Rankings at all {@code asOfDates} (ascending), each equal to {@link #rank(Map, LocalDate, int)}
+     * at that date. Scores are computed up front with {@link #scoreMatrix}, after which every
+     * ranking is a sort of one matrix row; only a lazy TV_TECHNICAL ranking (see
+     * {@link #rank(Map, LocalDate, int)}) is still done date by date.
+     */
+    public List<List<RankedEtf>> rankAll(Map<String, EtfHistory> universe, List<LocalDate> asOfDates, int exactTop) {
+        List<List<RankedEtf>> rankings = new ArrayList<>(Collections.nCopies(asOfDates.size(), null));
+        if (calculator instanceof TvTechnicalScoreCalculator && exactTop < universe.size()) {
+            for (int row = 0; row < asOfDates.size(); row++) {
+                rankings.set(row, rank(universe, asOfDates.get(row), exactTop));
+            }
+            return rankings;
+        }
+
+        ScoreMatrix matrix = scoreMatrix(universe, asOfDates);
+        workers.forEach(asOfDates.size(), (out, row) -> rankings.set(row, matrix.ranking(row)));
+        return rankings;
+    }
+
+    /**
+     * Scores of every symbol at all {@code asOfDates} (ascending), one
+     * {@link ScoreCalculator#computeScores} sweep per symbol, longest histories first.
+     */
+    public ScoreMatrix scoreMatrix(Map<String, EtfHistory> universe, List<LocalDate> asOfDates) {
+        ScoreMatrix matrix = new ScoreMatrix(asOfDates, universe.keySet());
+        EtfHistory[] histories = universe.values().toArray(new EtfHistory[0]);
+        Arrays.sort(histories, LONGEST_FIRST);
+        workers.forEach(histories.length, (out, i) ->
+                calculator.computeScores(histories[i], matrix, matrix.symbolIndex(histories[i].getSymbol())));
+        return matrix;
+    }
+
+    /**
+     * Score of one symbol with all timeframes, as in a full ranking; null if it has none.
+     */
+    public RankedEtf score(EtfHistory history, LocalDate asOfDate) {
+        return score(history, asOfDate, new double[4]);
+    }
+
+    private List<RankedEtf> rankFully(EtfHistory[] histories, LocalDate asOfDate) {
+        RankedEtf[] results = new RankedEtf[histories.length];
+        workers.forEach(histories.length, (out, i) -> results[i] = score(histories[i], asOfDate, out));
+        return nonNull(results);
+    }
+
+    /**
+     * TV ranking is lexicographic on (monthly, weekly, daily), so monthly scores are computed for
+     * everybody, weekly scores only for symbols whose monthly score reaches the one at position
+     * {@code exactTop}, and daily scores only for those still tied with position {@code exactTop}
+     * after that. Symbols left out get weekly/daily NaN and a sort score from what was computed,
+     * which is always below the full score of every symbol in the top {@code exactTop}: a
+     * timeframe score is (maVotes / 15 + oscVotes / 11) / 2, a multiple of 1/330 in [-1, 1], so a
+     * lower monthly score costs at least 1e6/330 (about 3030) of sort score while the weekly and
+     * daily terms together span at most 2 * 1e3 + 2, and a lower weekly score costs at least
+     * 1e3/330 while the daily term spans 2.
+     */
+    private List<RankedEtf> rankTvLazily(TvTechnicalScoreCalculator tv, EtfHistory[] histories,
+                                         LocalDate asOfDate, int exactTop) {
+        int n = histories.length;
+        double[] monthly = new double[n];
+        double[] weekly = new double[n];
+        double[] daily = new double[n];
+        Arrays.fill(weekly, Double.NaN);
+        Arrays.fill(daily, Double.NaN);
+
+        workers.forEach(n, (out, i) -> {
+            monthly[i] = tv.timeframeScore(histories[i], asOfDate, ScoreCalculator.MONTHLY);
+            if (Double.isNaN(monthly[i])) { // needed to tell whether the symbol has a score at all
+                weekly[i] = tv.timeframeScore(histories[i], asOfDate, ScoreCalculator.WEEKLY);
+                daily[i] = tv.timeframeScore(histories[i], asOfDate, ScoreCalculator.DAILY);
+            }
+        });
+
+        double[] partial = new double[n];
+        for (int i = 0; i < n; i++) partial[i] = TvTechnicalScoreCalculator.combine(daily[i], weekly[i], monthly[i]);
+        double monthlyCut = scoreAtPosition(partial, daily, weekly, monthly, exactTop);
+        workers.forEach(n, (out, i) -> {
+            if (partial[i] >= monthlyCut && !Double.isNaN(monthly[i])) {
+                weekly[i] = tv.timeframeScore(histories[i], asOfDate, ScoreCalculator.WEEKLY);
+            }
+        });
+
+        for (int i = 0; i < n; i++) partial[i] = TvTechnicalScoreCalculator.combine(daily[i], weekly[i], monthly[i]);
+        double weeklyCut = scoreAtPosition(partial, daily, weekly, monthly, exactTop);
+        workers.forEach(n, (out, i) -> {
+            if (partial[i] >= weeklyCut && !Double.isNaN(monthly[i])) {
+                daily[i] = tv.timeframeScore(histories[i], asOfDate, ScoreCalculator.DAILY);
+            }
+        });
+
+        List<RankedEtf> list = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            if (Double.isNaN(daily[i]) && Double.isNaN(weekly[i]) && Double.isNaN(monthly[i])) continue;
+            list.add(new RankedEtf(histories[i].getSymbol(),
+                    TvTechnicalScoreCalculator.combine(daily[i], weekly[i], monthly[i]),
+                    daily[i], weekly[i], monthly[i]));
+        }
+        return list;
+    }
+
+    // Sort score at 1-based position {@code position} among the symbols that have a score (the lowest if fewer)
+    private static double scoreAtPosition(double[] partial, double[] daily, double[] weekly, double[] monthly, int position) {
+        double[] scored = new double[partial.length];
+        int count = 0;
+        for (int i = 0; i < partial.length; i++) {
+            if (!(Double.isNaN(daily[i]) && Double.isNaN(weekly[i]) && Double.isNaN(monthly[i]))) {
+                scored[count++] = partial[i];
+            }
         }
+        if (count == 0) return Double.POSITIVE_INFINITY;
+        Arrays.sort(scored, 0, count);
+        return scored[Math.max(0, count - position)];
+    }
+
+    private static List<RankedEtf> nonNull(RankedEtf[] results) {
+        List<RankedEtf> list = new ArrayList<>(results.length);
+        for (RankedEtf ranked : results) {
+            if (ranked != null) {
+                list.add(ranked);
+            }
+        }
+        return list;
+    }
 
-        return list.stream()
-                .sorted(Comparator.comparingDouble(RankedEtf::score).reversed())
-                .collect(Collectors.toList());
+    private RankedEtf score(EtfHistory history, LocalDate asOfDate, double[] out) {
+        if (!calculator.computeScoreInto(history, asOfDate, out)) return null;
+        return new RankedEtf(
+                history.getSymbol(),
+                out[ScoreCalculator.SCORE],
+                out[ScoreCalculator.DAILY],
+                out[ScoreCalculator.WEEKLY],
+                out[ScoreCalculator.MONTHLY]
+        );
     }
 }
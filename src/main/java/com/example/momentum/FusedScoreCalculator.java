@@ -0,0 +1,111 @@
+package com.example.momentum;
+
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Scores RS_COMBINED, RETURN_6M and TV_TECHNICAL in one pass: for each symbol, one forward sweep
+ * over the rebalance dates looks up the as-of and lookback bars once and feeds all three
+ * calculators from them. The resulting matrices feed one {@link EtfRanker} per mode through
+ * {@link PrecomputedScoreCalculator}, so comparing the modes costs one scoring pass.
+ *
+ * Scores are identical to those of the individual calculators. Symbols are swept on the workers
+ * of a {@link RankingExecutor} (sequential by default); {@link #close()} shuts them down.
+ */
+public final class FusedScoreCalculator implements AutoCloseable {
+
+    private final CombinedMomentumCalculator combined;
+    private final SixMonthReturnCalculator sixMonth;
+    private final TvTechnicalScoreCalculator tv;
+    private final RankingWorkers workers;
+
+    public FusedScoreCalculator(CombinedMomentumCalculator combined,
+                                SixMonthReturnCalculator sixMonth,
+                                TvTechnicalScoreCalculator tv) {
+        this(combined, sixMonth, tv, RankingExecutor.SEQUENTIAL, 1);
+    }
+
+    /**
+     * @param parallelism number of symbols swept at the same time (ignored when sequential)
+     */
+    public FusedScoreCalculator(CombinedMomentumCalculator combined,
+                                SixMonthReturnCalculator sixMonth,
+                                TvTechnicalScoreCalculator tv,
+                                RankingExecutor executor,
+                                int parallelism) {
+        this.combined = combined;
+        this.sixMonth = sixMonth;
+        this.tv = tv;
+        this.workers = new RankingWorkers(executor, parallelism);
+    }
+
+    /**
+     * Shuts down the worker pool, if any; the calculators handed out by {@link #calculatorFor}
+     * stay usable.
+     */
+    @Override
+    public void close() {
+        workers.close();
+    }
+
+    /**
+     * Scores of every symbol and mode at all {@code asOfDates} (ascending).
+     */
+    public Map<ScoreMode, ScoreMatrix> scoreMatrices(Map<String, EtfHistory> universe, List<LocalDate> asOfDates) {
+        ScoreMatrix rs = new ScoreMatrix(asOfDates, universe.keySet());
+        ScoreMatrix r6m = new ScoreMatrix(asOfDates, universe.keySet());
+        ScoreMatrix tvScores = new ScoreMatrix(asOfDates, universe.keySet());
+
+        List<String> symbols = rs.getSymbols();
+        workers.forEach(symbols.size(), (out, s) -> sweep(universe.get(symbols.get(s)), s, rs, r6m, tvScores));
+
+        Map<ScoreMode, ScoreMatrix> result = new EnumMap<>(ScoreMode.class);
+        result.put(ScoreMode.RS_COMBINED, rs);
+        result.put(ScoreMode.RETURN_6M, r6m);
+        result.put(ScoreMode.TV_TECHNICAL, tvScores);
+        return result;
+    }
+
+    /**
+     * Calculator of {@code mode} that answers from {@code scores} where it can.
+     */
+    public ScoreCalculator calculatorFor(ScoreMode mode, ScoreMatrix scores) {
+        ScoreCalculator own = switch (mode) {
+            case RS_COMBINED -> combined;
+            case RETURN_6M -> sixMonth;
+            case TV_TECHNICAL -> tv;
+        };
+        return new PrecomputedScoreCalculator(scores, own);
+    }
+
+    private void sweep(EtfHistory history, int symbol, ScoreMatrix rs, ScoreMatrix r6m, ScoreMatrix tvScores) {
+        int[] days = rs.epochDays();
+        int[] rsLookbacks = combined.lookbackDays();
+        long r6mLookback = sixMonth.lookbackDays();
+        double[] out = new double[4];
+
+        int today = -1;
+        int[] rsPast = new int[rsLookbacks.length];
+        Arrays.fill(rsPast, -1);
+        int r6mPast = -1;
+
+        for (int row = 0; row < days.length; row++) {
+            today = history.indexOnOrBefore(days[row], today);
+            for (int k = 0; k < rsLookbacks.length; k++) {
+                rsPast[k] = history.indexOnOrBefore((long) days[row] - rsLookbacks[k], rsPast[k]);
+            }
+            r6mPast = history.indexOnOrBefore(days[row] - r6mLookback, r6mPast);
+            if (today < 0) continue;
+
+            if (combined.scoreAt(history, today, rsPast, out)) {
+                rs.set(row, symbol, out);
+            }
+            if (sixMonth.scoreAt(history, today, r6mPast, out)) {
+                r6m.set(row, symbol, out);
+            }
+            if (tv.scoreAt(history, today, out)) {
+                tvScores.set(row, symbol, out);
+            }
+        }
+    }
+}
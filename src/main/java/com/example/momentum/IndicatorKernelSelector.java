@@ -0,0 +1,114 @@
+package com.example.momentum;
+
+import java.util.SplittableRandom;
+
+/**
+ * Picks the {@link IndicatorKernels} once per JVM.
+ *
+ * The scalar kernels are the exact mode: their results are bit-for-bit those of the plain
+ * indicator loops. The vector kernels are a known non-exact mode: lanes are summed in another
+ * order, so sums (and the indicators and votes built on them) can differ in the last bits.
+ * They are only used when MOMENTUM_SIMD=true, the build included them ({@code -Psimd}), the JVM
+ * was started with {@code --add-modules jdk.incubator.vector}, and a startup sanity check passes:
+ * min/max identical, sums within a relative {@value #SUM_TOLERANCE}. Otherwise the scalar
+ * kernels are used, with a warning if SIMD was requested.
+ */
+final class IndicatorKernelSelector {
+
+    static final IndicatorKernels SELECTED = select();
+
+    // Sanity bound for the reordered vector sums, not an equality check
+    static final double SUM_TOLERANCE = 1e-12;
+
+    private static final String VECTOR_KERNELS = "com.example.momentum.VectorIndicatorKernels";
+
+    private IndicatorKernelSelector() {}
+
+    private static IndicatorKernels select() {
+        if (!Settings.getBoolean("MOMENTUM_SIMD", false)) {
+            return ScalarIndicatorKernels.INSTANCE;
+        }
+        IndicatorKernels vector;
+        int lanes;
+        try {
+            // Loaded by name: the default build leaves the class out (see the simd profile in pom.xml)
+            Class<?> type = Class.forName(VECTOR_KERNELS);
+            vector = (IndicatorKernels) type.getField("INSTANCE").get(null);
+            lanes = (Integer) type.getMethod("lanes").invoke(null);
+        } catch (ClassNotFoundException e) {
+            System.out.println("WARN: MOMENTUM_SIMD needs a build with the simd profile (mvn -Psimd package)"
+                    + " (using scalar indicator kernels)");
+            return ScalarIndicatorKernels.INSTANCE;
+        } catch (ReflectiveOperationException | LinkageError e) {
+            System.out.println("WARN: MOMENTUM_SIMD needs the JVM option --add-modules jdk.incubator.vector"
+                    + " (using scalar indicator kernels)");
+            return ScalarIndicatorKernels.INSTANCE;
+        }
+        String mismatch = selfCheck(vector, ScalarIndicatorKernels.INSTANCE);
+        if (mismatch != null) {
+            System.out.println("WARN: Vector indicator kernels disagree with scalar ones (" + mismatch
+                    + "), using scalar indicator kernels");
+            return ScalarIndicatorKernels.INSTANCE;
+        }
+        System.out.println("Indicator kernels: vector (" + lanes + " doubles per vector)");
+        return vector;
+    }
+
+    /**
+     * Compares both kernel sets on random price-like data over many window offsets and lengths,
+     * including lengths that are not multiples of the vector width. Returns null if all agree.
+     */
+    static String selfCheck(IndicatorKernels candidate, IndicatorKernels reference) {
+        SplittableRandom random = new SplittableRandom(20_240_601L);
+        int n = 600;
+        double[] high = new double[n];
+        double[] low = new double[n];
+        double[] close = new double[n];
+        double[] volume = new double[n];
+        double price = 100.0;
+        for (int i = 0; i < n; i++) {
+            price *= 1.0 + 0.02 * (random.nextDouble() - 0.5);
+            close[i] = price;
+            high[i] = price * (1.0 + 0.01 * random.nextDouble());
+            low[i] = price * (1.0 - 0.01 * random.nextDouble());
+            volume[i] = Math.rint(1e6 * random.nextDouble());
+        }
+
+        for (int len = 0; len <= 260; len++) {
+            int from = 1 + random.nextInt(n - len - 1);
+            int to = from + len;
+            double mean = reference.typicalPriceSum(high, low, close, from, to) / Math.max(1, len);
+
+            if (candidate.max(high, from, to) != reference.max(high, from, to)) return "max, length " + len;
+            if (candidate.min(low, from, to) != reference.min(low, from, to)) return "min, length " + len;
+            if (!close(candidate.sum(close, from, to), reference.sum(close, from, to))) return "sum, length " + len;
+            if (!close(candidate.dot(close, volume, from, to), reference.dot(close, volume, from, to))) return "dot, length " + len;
+            if (!close(candidate.rampDot(close, from, to), reference.rampDot(close, from, to))) return "rampDot, length " + len;
+            if (!close(candidate.medianPriceSum(high, low, from, to), reference.medianPriceSum(high, low, from, to))) {
+                return "medianPriceSum, length " + len;
+            }
+            if (!close(candidate.typicalPriceSum(high, low, close, from, to), reference.typicalPriceSum(high, low, close, from, to))) {
+                return "typicalPriceSum, length " + len;
+            }
+            if (!close(candidate.typicalPriceAbsDeviationSum(high, low, close, from, to, mean),
+                    reference.typicalPriceAbsDeviationSum(high, low, close, from, to, mean))) {
+                return "typicalPriceAbsDeviationSum, length " + len;
+            }
+            if (!close(candidate.trueRangeSum(high, low, close, from, to), reference.trueRangeSum(high, low, close, from, to))) {
+                return "trueRangeSum, length " + len;
+            }
+            if (!close(candidate.buyingPressureSum(low, close, from, to), reference.buyingPressureSum(low, close, from, to))) {
+                return "buyingPressureSum, length " + len;
+            }
+            if (!close(candidate.trueRangeFromPrevCloseSum(high, low, close, from, to),
+                    reference.trueRangeFromPrevCloseSum(high, low, close, from, to))) {
+                return "trueRangeFromPrevCloseSum, length " + len;
+            }
+        }
+        return null;
+    }
+
+    private static boolean close(double actual, double expected) {
+        return Math.abs(actual - expected) <= SUM_TOLERANCE * Math.max(1.0, Math.abs(expected));
+    }
+}
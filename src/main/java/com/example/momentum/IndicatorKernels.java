@@ -0,0 +1,53 @@
+package com.example.momentum;
+
+/**
+ * Window reductions used by the indicator code. All ranges are half-open: [from, to).
+ *
+ * {@link ScalarIndicatorKernels} sums strictly left to right, exactly like the original loops.
+ * VectorIndicatorKernels (only in builds with the simd profile) uses the JDK Vector API; its
+ * min/max are identical, but it is not an exact mode: its sums may differ in the last bits
+ * because lanes are added in another order.
+ */
+public interface IndicatorKernels {
+
+    /** Sum of v[i] */
+    double sum(double[] v, int from, int to);
+
+    /** Sum of a[i] * b[i] */
+    double dot(double[] a, double[] b, int from, int to);
+
+    /** Sum of v[i] * (i - from + 1), the numerator of a linearly weighted MA */
+    double rampDot(double[] v, int from, int to);
+
+    /** max v[i], -Infinity for an empty range */
+    double max(double[] v, int from, int to);
+
+    /** min v[i], +Infinity for an empty range */
+    double min(double[] v, int from, int to);
+
+    /** Sum of (high[i] + low[i]) / 2 */
+    double medianPriceSum(double[] high, double[] low, int from, int to);
+
+    /** Sum of (high[i] + low[i] + close[i]) / 3 */
+    double typicalPriceSum(double[] high, double[] low, double[] close, int from, int to);
+
+    /** Sum of |(high[i] + low[i] + close[i]) / 3 - mean| */
+    double typicalPriceAbsDeviationSum(double[] high, double[] low, double[] close, int from, int to, double mean);
+
+    /** Sum of true range, max(high - low, |high - prevClose|, |low - prevClose|); requires from >= 1 */
+    double trueRangeSum(double[] high, double[] low, double[] close, int from, int to);
+
+    /** Sum of close[i] - min(low[i], prevClose) (Ultimate Oscillator buying pressure); requires from >= 1 */
+    double buyingPressureSum(double[] low, double[] close, int from, int to);
+
+    /** Sum of max(high[i], prevClose) - min(low[i], prevClose) (Ultimate Oscillator range); requires from >= 1 */
+    double trueRangeFromPrevCloseSum(double[] high, double[] low, double[] close, int from, int to);
+
+    /**
+     * Kernels chosen at startup: scalar unless MOMENTUM_SIMD=true and the vector kernels are
+     * available and pass their self-check (see {@link IndicatorKernelSelector}).
+     */
+    static IndicatorKernels get() {
+        return IndicatorKernelSelector.SELECTED;
+    }
+}
@@ -5,8 +5,13 @@ import org.knowm.xchart.SwingWrapper;
 import org.knowm.xchart.XYChart;
 import org.knowm.xchart.XYChartBuilder;
 
+import com.example.momentum.cache.PriceCache;
+import com.example.momentum.cache.PriceCacheRefresher;
 import com.example.momentum.db.ChartingDbClient;
 import com.example.momentum.db.DbConfig;
+import com.example.momentum.db.HistoryLoader;
+import com.example.momentum.db.PooledHistoryLoader;
+import com.example.momentum.db.SingleConnectionHistoryLoader;
 import com.example.momentum.db.UniverseFileParser;
 import com.example.momentum.db.UniverseResolver;
 
@@ -18,57 +23,350 @@ import java.util.stream.Collectors;
 
 public class Main {
 
+    private static final String BENCHMARK = "SPY";
+    private static final String SAFETY = "IEF";
+
+    // RS_COMBINED: ~3/6/12 months, RETURN_6M: ~6 months (trading days, used as calendar-day offsets)
+    private static final int[] RS_LOOKBACK_DAYS = {63, 126, 252};
+    private static final int RETURN_6M_LOOKBACK_DAYS = 120;
+
+    private static final int TOP_N = 3;
+    private static final int MA_PERIOD = 200; // 200-day MA for risk-on/off
+    private static final int SLOW_KEEP_RANK_MULTIPLIER = 2; // keep holdings while they remain in top (N * 2)
+    private static final double INITIAL_CAPITAL = 100_000.0;
+
     public static void main(String[] args) throws Exception {
         System.out.println("Working dir: " + System.getProperty("user.dir"));
 
         Path universeFile = args.length >= 1 ? Path.of(args[0]) : Path.of("config/universe.txt");
         Path dbPropertiesFile = args.length >= 2 ? Path.of(args[1]) : DbConfig.DEFAULT_PROPERTIES_PATH;
 
-        RotationSpeed rotationSpeed = askRotationSpeedFromUser();
-        ScoreMode scoreMode = askScoreModeFromUser();
+        RunMode runMode = askRunModeFromUser();
+        // A sweep tries both rotation speeds
+        boolean sweeping = runMode == RunMode.SWEEP || runMode == RunMode.WALK_FORWARD;
+        RotationSpeed rotationSpeed = sweeping ? RotationSpeed.FAST : askRotationSpeedFromUser();
+        // Comparing and sweeping score every mode; the score mode is asked for the single-mode runs only (null otherwise)
+        boolean allModes = runMode == RunMode.COMPARE || sweeping;
+        ScoreMode scoreMode = allModes ? null : askScoreModeFromUser();
+        // Month-end samples suffice only for one return-based mode on month-end rebalancing: TV_TECHNICAL
+        // resamples the daily bars and the daily simulation marks every holding to market each day
+        boolean needsDailyBars = allModes || scoreMode == ScoreMode.TV_TECHNICAL || runMode == RunMode.DAILY;
 
         // If you want automatic downloads from Stooq, uncomment this:
         // downloadFromStooq();
 
-        Map<String, EtfHistory> universe = loadUniverseFromDatabase(universeFile, dbPropertiesFile);
-
-        // Signal calculators
-        ScoreCalculator calculator;
-        if (scoreMode == ScoreMode.RS_COMBINED) {
-            int lookback3m = 63;
-            int lookback6m = 126;
-            int lookback12m = 252;
-            calculator = new CombinedMomentumCalculator(lookback3m, lookback6m, lookback12m);
-        } else if (scoreMode == ScoreMode.RETURN_6M) {
-            calculator = new SixMonthReturnCalculator(120); // ~6 months
+        PriceSource source;
+        if ("synthetic".equalsIgnoreCase(Settings.get("MOMENTUM_SOURCE", "db"))) {
+            source = new SyntheticUniverseGenerator(
+                    Settings.getInt("MOMENTUM_SYNTHETIC_SYMBOLS", 500),
+                    LocalDate.of(2000, 1, 3),
+                    Settings.getInt("MOMENTUM_SYNTHETIC_YEARS", 25),
+                    Settings.getInt("MOMENTUM_SYNTHETIC_SEED", 42));
         } else {
-            calculator = new TvTechnicalScoreCalculator();
+            source = () -> loadUniverseFromDatabase(universeFile, dbPropertiesFile, scoreMode, needsDailyBars);
+        }
+        Map<String, EtfHistory> universe = source.loadUniverse();
+
+        if (runMode == RunMode.COMPARE) {
+            compareScoreModes(universe, rotationSpeed);
+            return;
+        }
+        if (runMode == RunMode.SWEEP) {
+            sweepParameters(universe);
+            return;
         }
+        if (runMode == RunMode.WALK_FORWARD) {
+            walkForward(universe);
+            return;
+        }
+
+        try (EtfRanker ranker = newRanker(newCalculator(scoreMode), scoreMode)) {
+            boolean reportRankings = Settings.getBoolean("MOMENTUM_REPORT_RANKINGS", true);
+            RelativeStrengthBacktester backtester = new RelativeStrengthBacktester(
+                    universe, ranker, TOP_N, BENCHMARK, SAFETY, MA_PERIOD, rotationSpeed, SLOW_KEEP_RANK_MULTIPLIER,
+                    reportRankings, RelativeStrengthBacktester.DEFAULT_RANKINGS_CSV
+            );
 
-        EtfRanker ranker = new EtfRanker(calculator, scoreMode);
+            if (runMode == RunMode.DAILY) {
+                simulateDaily(backtester, rotationSpeed, scoreMode);
+                return;
+            }
+
+            EquityCurve curve = backtester.runBacktest(INITIAL_CAPITAL);
+
+            System.out.println("Initial capital: " + INITIAL_CAPITAL);
+            System.out.println("Final equity: " + finalEquity(curve));
+            if (reportRankings) {
+                System.out.println("Ranked universe CSV written to " + RelativeStrengthBacktester.DEFAULT_RANKINGS_CSV);
+            }
+            if (runMode == RunMode.MONTE_CARLO) {
+                bootstrapReturns(curve);
+            }
+
+            plotEquityCurve(curve, rotationSpeed, scoreMode);
+        }
+    }
 
-        int topN = 3;
-        int maPeriod = 200; // 200-day MA for risk-on/off
-        String benchmark = "SPY";
-        String safety = "IEF";
+    private static void simulateDaily(RelativeStrengthBacktester backtester, RotationSpeed rotationSpeed,
+                                      ScoreMode scoreMode) {
+        long start = System.nanoTime();
+        DailyBacktestResult daily = backtester.runDailyBacktest(INITIAL_CAPITAL);
+        System.out.printf("Simulated daily in %d ms%n", (System.nanoTime() - start) / 1_000_000);
+        System.out.println("Daily simulation: " + daily.tradingDays() + " trading days, " + daily.riskSwitches()
+                + " risk-on/off switches within a month");
+
+        BacktestResult result = daily.result();
+
+        System.out.println("Initial capital: " + INITIAL_CAPITAL);
+        System.out.println("Final equity: " + result.finalEquity(INITIAL_CAPITAL));
+        System.out.printf(Locale.US, "CAGR=%.2f%% | maxDD=%.2f%% (daily) | turnover=%.2f/yr%n",
+                result.cagr() * 100.0, result.maxDrawdown() * 100.0, result.annualTurnover());
+
+        plotEquityCurve(result.curve(), "Dual-Momentum ETF Strategy (" + rotationSpeed + ", " + scoreMode
+                + ", daily) - Equity Curve");
+    }
+
+    /**
+     * Resamples the monthly returns of {@code curve} (MOMENTUM_MC_* settings) and prints percentiles
+     * of CAGR and max drawdown next to the backtest's own values.
+     */
+    private static void bootstrapReturns(EquityCurve curve) {
+        if (curve.equity().isEmpty()) {
+            System.out.println("WARN: No periods to bootstrap");
+            return;
+        }
+        String methodName = Settings.get("MOMENTUM_MC_METHOD", "stationary").toLowerCase(Locale.ROOT);
+        BootstrapMethod method = switch (methodName) {
+            case "stationary" -> BootstrapMethod.STATIONARY;
+            case "block" -> BootstrapMethod.BLOCK;
+            default -> {
+                System.out.println("WARN: Unknown MOMENTUM_MC_METHOD '" + methodName + "' (using stationary)");
+                yield BootstrapMethod.STATIONARY;
+            }
+        };
+        int blockMonths = Settings.getInt("MOMENTUM_MC_BLOCK_MONTHS", 6);
+        MonteCarloBootstrap bootstrap = new MonteCarloBootstrap(method, blockMonths,
+                Settings.getInt("MOMENTUM_MC_PATHS", 100_000), Settings.getInt("MOMENTUM_MC_SEED", 42));
+
+        long start = System.nanoTime();
+        MonteCarloBootstrap.Distribution distribution =
+                bootstrap.run(MonteCarloBootstrap.periodReturns(curve, INITIAL_CAPITAL), 12);
+        System.out.printf("Bootstrapped %d paths (%s, %d-month blocks) in %d ms%n", distribution.paths(),
+                method, blockMonths, (System.nanoTime() - start) / 1_000_000);
+
+        // years counted in periods, like the bootstrap paths
+        double cagr = Math.pow(finalEquity(curve) / INITIAL_CAPITAL, 12.0 / curve.equity().size()) - 1.0;
+        double maxDrawdown = BacktestResult.of(curve.dates().get(0), INITIAL_CAPITAL, curve, 0.0).maxDrawdown();
+        System.out.printf(Locale.US, "Backtest: CAGR=%.2f%% | maxDD=%.2f%%%n", cagr * 100.0, maxDrawdown * 100.0);
+        for (double p : new double[] {5, 25, 50, 75, 95}) {
+            System.out.printf(Locale.US, "P%-2.0f: CAGR=%.2f%% | maxDD=%.2f%%%n",
+                    p, distribution.cagrPercentile(p) * 100.0, distribution.maxDrawdownPercentile(p) * 100.0);
+        }
+        System.out.printf(Locale.US, "Paths losing money: %.2f%%%n", distribution.lossProbability() * 100.0);
+    }
+
+    /**
+     * Backtests every score mode on the same universe. All modes are scored in one pass per symbol
+     * ({@link FusedScoreCalculator}); each mode writes its own rankings CSV.
+     */
+    private static void compareScoreModes(Map<String, EtfHistory> universe, RotationSpeed rotationSpeed) {
+        FusedScoreCalculator fused = new FusedScoreCalculator(
+                new CombinedMomentumCalculator(RS_LOOKBACK_DAYS),
+                new SixMonthReturnCalculator(RETURN_6M_LOOKBACK_DAYS),
+                newTvCalculator(),
+                rankingExecutorFromSettings(),
+                rankThreadsFromSettings());
+        List<LocalDate> rebalanceDates = DateUtils.monthEndTradingDays(universe.get(BENCHMARK));
+        Map<ScoreMode, ScoreMatrix> scores;
+        try (fused) {
+            scores = fused.scoreMatrices(universe, rebalanceDates);
+        }
+
+        boolean reportRankings = Settings.getBoolean("MOMENTUM_REPORT_RANKINGS", true);
+        Map<ScoreMode, EquityCurve> curves = new EnumMap<>(ScoreMode.class);
+        for (ScoreMode mode : ScoreMode.values()) {
+            Path csv = Path.of("output", "ranked-universe-" + mode.name().toLowerCase(Locale.ROOT) + ".csv");
+            try (EtfRanker ranker = newRanker(fused.calculatorFor(mode, scores.get(mode)), mode)) {
+                RelativeStrengthBacktester backtester = new RelativeStrengthBacktester(
+                        universe, ranker, TOP_N, BENCHMARK, SAFETY, MA_PERIOD, rotationSpeed, SLOW_KEEP_RANK_MULTIPLIER,
+                        reportRankings, csv
+                );
+                curves.put(mode, backtester.runBacktest(INITIAL_CAPITAL));
+            }
+            if (reportRankings) {
+                System.out.println("Ranked universe CSV written to " + csv);
+            }
+        }
+
+        System.out.println("Initial capital: " + INITIAL_CAPITAL);
+        for (Map.Entry<ScoreMode, EquityCurve> e : curves.entrySet()) {
+            System.out.println("Final equity (" + e.getKey() + "): " + finalEquity(e.getValue()));
+        }
+
+        plotEquityCurves(curves, rotationSpeed);
+    }
+
+    /**
+     * Backtests the parameter grid from the MOMENTUM_SWEEP_* settings and writes one result line per
+     * config to {@link ParameterSweep#DEFAULT_RESULTS_CSV}.
+     */
+    private static void sweepParameters(Map<String, EtfHistory> universe) {
+        List<BacktestConfig> configs = parameterGridFromSettings().configs();
+        System.out.println("Sweeping " + configs.size() + " configs");
+
+        Map<BacktestConfig, BacktestResult> results;
+        try (ParameterSweep sweep = newSweep(universe)) {
+            long start = System.nanoTime();
+            results = sweep.run(configs);
+            System.out.printf("Swept %d configs in %d ms%n", configs.size(), (System.nanoTime() - start) / 1_000_000);
+            sweep.writeCsv(results, ParameterSweep.DEFAULT_RESULTS_CSV);
+        }
+        System.out.println("Sweep results written to " + ParameterSweep.DEFAULT_RESULTS_CSV);
+
+        int shown = 0;
+        for (Map.Entry<BacktestConfig, BacktestResult> e : results.entrySet()) {
+            if (shown++ == 10) break;
+            System.out.println(shown + ". " + ParameterSweep.format(e));
+        }
+    }
+
+    /**
+     * Walk-forward over the sweep grid: MOMENTUM_WF_IN_SAMPLE_YEARS to pick a config, then
+     * MOMENTUM_WF_OUT_OF_SAMPLE_MONTHS to trade it. Plots the stitched out-of-sample equity.
+     */
+    private static void walkForward(Map<String, EtfHistory> universe) {
+        List<BacktestConfig> configs = parameterGridFromSettings().configs();
+        int inSampleYears = Settings.getInt("MOMENTUM_WF_IN_SAMPLE_YEARS", 5);
+        int outOfSampleMonths = Settings.getInt("MOMENTUM_WF_OUT_OF_SAMPLE_MONTHS", 12);
+        System.out.println("Walk-forward over " + configs.size() + " configs: " + inSampleYears
+                + " years in sample, " + outOfSampleMonths + " months out of sample");
+
+        List<WalkForwardOptimizer.Fold> folds;
+        try (ParameterSweep sweep = newSweep(universe)) {
+            WalkForwardOptimizer optimizer = new WalkForwardOptimizer(sweep, inSampleYears, outOfSampleMonths);
+            long start = System.nanoTime();
+            folds = optimizer.run(configs, INITIAL_CAPITAL);
+            System.out.printf("Ran %d folds in %d ms%n", folds.size(), (System.nanoTime() - start) / 1_000_000);
+        }
+        if (folds.isEmpty()) {
+            System.out.println("WARN: History is too short for a " + inSampleYears + "-year in-sample window");
+            return;
+        }
+
+        WalkForwardOptimizer.writeCsv(folds, WalkForwardOptimizer.DEFAULT_FOLDS_CSV);
+        System.out.println("Walk-forward folds written to " + WalkForwardOptimizer.DEFAULT_FOLDS_CSV);
+
+        EquityCurve curve = WalkForwardOptimizer.stitch(folds);
+        BacktestResult stitched = BacktestResult.of(folds.get(0).outOfSampleStart(), INITIAL_CAPITAL, curve, 0.0);
+        System.out.println("Initial capital: " + INITIAL_CAPITAL);
+        System.out.println("Final equity (out of sample): " + finalEquity(curve));
+        System.out.printf(Locale.US, "Out-of-sample CAGR=%.2f%% | maxDD=%.2f%%%n",
+                stitched.cagr() * 100.0, stitched.maxDrawdown() * 100.0);
+
+        plotEquityCurve(curve, "Dual-Momentum ETF Strategy (walk-forward, out of sample) - Equity Curve");
+    }
+
+    private static ParameterGrid parameterGridFromSettings() {
+        return new ParameterGrid(
+                List.of(ScoreMode.values()),
+                List.of(RotationSpeed.values()),
+                Settings.getIntList("MOMENTUM_SWEEP_TOP_N", List.of(2, 3, 4, 5)),
+                Settings.getIntList("MOMENTUM_SWEEP_MA_PERIODS", List.of(150, 200)),
+                Settings.getIntList("MOMENTUM_SWEEP_KEEP_MULTIPLIERS", List.of(2, 3)),
+                rsLookbacksFromSettings(),
+                Settings.getIntList("MOMENTUM_SWEEP_6M_LOOKBACKS", List.of(RETURN_6M_LOOKBACK_DAYS, 90)));
+    }
+
+    // MOMENTUM_SWEEP_RS_LOOKBACKS: comma-separated sets of slash-separated lookbacks, e.g. "63/126/252,21/63/126"
+    private static List<List<Integer>> rsLookbacksFromSettings() {
+        String value = Settings.get("MOMENTUM_SWEEP_RS_LOOKBACKS", "63/126/252,21/63/126");
+        List<List<Integer>> sets = new ArrayList<>();
+        for (String set : value.split(",")) {
+            List<Integer> lookbacks = new ArrayList<>();
+            for (String days : set.split("/")) {
+                try {
+                    lookbacks.add(Integer.parseInt(days.trim()));
+                } catch (NumberFormatException e) {
+                    throw new IllegalStateException("Setting MOMENTUM_SWEEP_RS_LOOKBACKS must look like 63/126/252,21/63/126, got: " + value);
+                }
+            }
+            sets.add(lookbacks);
+        }
+        return sets;
+    }
+
+    private static ScoreCalculator newCalculator(ScoreMode scoreMode) {
+        return switch (scoreMode) {
+            case RS_COMBINED -> new CombinedMomentumCalculator(RS_LOOKBACK_DAYS);
+            case RETURN_6M -> new SixMonthReturnCalculator(RETURN_6M_LOOKBACK_DAYS);
+            case TV_TECHNICAL -> newTvCalculator();
+        };
+    }
+
+    private static TvTechnicalScoreCalculator newTvCalculator() {
+        return new TvTechnicalScoreCalculator(Settings.getBoolean("MOMENTUM_TV_SERIES", true)
+                ? TvScoringMode.SERIES : TvScoringMode.INCREMENTAL);
+    }
+
+    private static EtfRanker newRanker(ScoreCalculator calculator, ScoreMode scoreMode) {
+        return new EtfRanker(calculator, scoreMode, rankingExecutorFromSettings(), rankThreadsFromSettings());
+    }
 
-        int slowKeepRankMultiplier = 2; // keep holdings while they remain in top (N * 2)
-        RelativeStrengthBacktester backtester = new RelativeStrengthBacktester(
-                universe, ranker, topN, benchmark, safety, maPeriod, rotationSpeed, slowKeepRankMultiplier
-        );
+    private static ParameterSweep newSweep(Map<String, EtfHistory> universe) {
+        return new ParameterSweep(universe, BENCHMARK, SAFETY, INITIAL_CAPITAL, newTvCalculator(),
+                rankingExecutorFromSettings(), rankThreadsFromSettings());
+    }
 
-        double initialCapital = 100_000.0;
-        EquityCurve curve = backtester.runBacktest(initialCapital);
+    private static int rankThreadsFromSettings() {
+        return Settings.getInt("MOMENTUM_RANK_THREADS", Runtime.getRuntime().availableProcessors());
+    }
 
-        double finalEquity = curve.equity().isEmpty()
-                ? initialCapital
+    private static double finalEquity(EquityCurve curve) {
+        return curve.equity().isEmpty()
+                ? INITIAL_CAPITAL
                 : curve.equity().get(curve.equity().size() - 1);
+    }
 
-        System.out.println("Initial capital: " + initialCapital);
-        System.out.println("Final equity: " + finalEquity);
-        System.out.println("Ranked universe CSV written to output/ranked-universe.csv");
+    private static RankingExecutor rankingExecutorFromSettings() {
+        String value = Settings.get("MOMENTUM_RANK_EXECUTOR", "sequential").toLowerCase(Locale.ROOT);
+        return switch (value) {
+            case "sequential" -> RankingExecutor.SEQUENTIAL;
+            case "forkjoin" -> RankingExecutor.FORK_JOIN;
+            case "virtual" -> RankingExecutor.VIRTUAL_THREADS;
+            default -> {
+                System.out.println("WARN: Unknown MOMENTUM_RANK_EXECUTOR '" + value + "' (using sequential)");
+                yield RankingExecutor.SEQUENTIAL;
+            }
+        };
+    }
 
-        plotEquityCurve(curve, rotationSpeed, scoreMode);
+    private static RunMode askRunModeFromUser() {
+        Scanner scanner = new Scanner(System.in);
+        System.out.println("Choose run:");
+        System.out.println("  1 = Backtest one ranking mode");
+        System.out.println("  2 = Compare all ranking modes side by side");
+        System.out.println("  3 = Sweep a grid of strategy parameters");
+        System.out.println("  4 = Walk-forward optimization over that grid");
+        System.out.println("  5 = Backtest one ranking mode with a Monte Carlo bootstrap of its returns");
+        System.out.println("  6 = Backtest one ranking mode day by day (daily equity and risk-off)");
+        System.out.print("Your choice [1/2/3/4/5/6]: ");
+        String input = scanner.nextLine().trim();
+        if ("2".equals(input)) {
+            return RunMode.COMPARE;
+        }
+        if ("3".equals(input)) {
+            return RunMode.SWEEP;
+        }
+        if ("4".equals(input)) {
+            return RunMode.WALK_FORWARD;
+        }
+        if ("5".equals(input)) {
+            return RunMode.MONTE_CARLO;
+        }
+        if ("6".equals(input)) {
+            return RunMode.DAILY;
+        }
+        return RunMode.SINGLE;
     }
 
     private static RotationSpeed askRotationSpeedFromUser() {
@@ -101,34 +399,73 @@ public class Main {
         return ScoreMode.RS_COMBINED;
     }
 
-    private static Map<String, EtfHistory> loadUniverseFromDatabase(Path universeFile, Path dbPropertiesFile) throws Exception {
+    /**
+     * @param scoreMode      mode of a single-mode run, null when every mode is scored
+     * @param needsDailyBars whether every symbol needs its daily bars (otherwise month-end samples may do)
+     */
+    private static Map<String, EtfHistory> loadUniverseFromDatabase(Path universeFile, Path dbPropertiesFile,
+                                                                    ScoreMode scoreMode, boolean needsDailyBars) throws Exception {
         // Optional: trim history if you only want data from a given date
         LocalDate startDate = LocalDate.of(2002, 1, 1);
 
         DbConfig dbConfig = DbConfig.loadOrThrow(dbPropertiesFile);
         Set<String> tokens = UniverseFileParser.parse(universeFile);
+        String cacheMode = Settings.get("MOMENTUM_PRICE_CACHE", "refresh").toLowerCase(Locale.ROOT);
+        PriceCache cache = "off".equals(cacheMode)
+                ? null
+                : new PriceCache(Path.of(Settings.get("MOMENTUM_PRICE_CACHE_DIR", PriceCache.DEFAULT_DIRECTORY.toString())));
 
         Map<String, EtfHistory> universe = new HashMap<>();
         try (ChartingDbClient db = new ChartingDbClient(dbConfig)) {
             Set<String> symbols = UniverseResolver.resolve(tokens, db);
 
             // Always include benchmark & safety, because the backtester depends on them.
-            symbols.add("SPY");
-            symbols.add("IEF");
+            symbols.add(BENCHMARK);
+            symbols.add(SAFETY);
 
             System.out.println("Universe tokens: " + tokens);
             System.out.println("Resolved symbols: " + symbols.size());
 
-            for (String s : symbols) {
-                try {
-                    EtfHistory history = db.loadHistory(s, startDate);
-                    if (history.getBars().isEmpty()) {
+            // MOMENTUM_MONTH_END_PUSHDOWN: the return-based modes only need a few closes per month, let the DB pick them.
+            // The benchmark still needs daily bars for the moving-average filter and the rebalance calendar.
+            boolean pushDown = !needsDailyBars && Settings.getBoolean("MOMENTUM_MONTH_END_PUSHDOWN", false);
+            Set<String> dailySymbols = pushDown ? new LinkedHashSet<>(List.of(BENCHMARK)) : symbols;
+
+            // MOMENTUM_DB_CONNECTIONS > 1 loads symbol batches in parallel over that many connections
+            // MOMENTUM_DB_LOAD=copy transfers bars with binary COPY instead of a select
+            int connections = Settings.getInt("MOMENTUM_DB_CONNECTIONS", 1);
+            boolean binaryCopy = "copy".equalsIgnoreCase(Settings.get("MOMENTUM_DB_LOAD", "select"));
+            try (PooledHistoryLoader pooled = connections > 1
+                    ? new PooledHistoryLoader(dbConfig, connections, PooledHistoryLoader.DEFAULT_BATCH_SIZE, binaryCopy)
+                    : null) {
+                HistoryLoader loader = pooled != null ? pooled : new SingleConnectionHistoryLoader(db, binaryCopy);
+
+                if (cache != null && "refresh".equals(cacheMode)) {
+                    universe.putAll(new PriceCacheRefresher(cache).refresh(db, loader, dailySymbols, startDate));
+                } else {
+                    universe.putAll(loadHistories(loader, cache, dailySymbols, startDate));
+                }
+            }
+
+            if (pushDown) {
+                List<String> sampledSymbols = symbols.stream().filter(s -> !dailySymbols.contains(s)).toList();
+                int[] lookbacks = scoreMode == ScoreMode.RS_COMBINED ? RS_LOOKBACK_DAYS : new int[] {RETURN_6M_LOOKBACK_DAYS};
+                Map<String, EtfHistory> samples = db.loadMonthEndSamples(sampledSymbols, startDate, BENCHMARK, lookbacks);
+                for (String s : sampledSymbols) {
+                    EtfHistory h = samples.get(s);
+                    if (h == null) {
                         System.out.println("WARN: No price history found in DB for symbol " + s + " (skipping)");
                         continue;
                     }
-                    universe.put(s, history);
-                } catch (Exception e) {
-                    System.out.println("WARN: Failed to load history for " + s + ": " + e.getMessage());
+                    universe.put(s, h);
+                }
+                System.out.println("Loaded month-end samples for " + samples.size() + " symbols (ATR% is n/a for them)");
+            }
+
+            // MOMENTUM_SQL_RESAMPLE: TV mode gets its weekly/monthly bars pre-aggregated by the DB
+            if (scoreMode == ScoreMode.TV_TECHNICAL && Settings.getBoolean("MOMENTUM_SQL_RESAMPLE", false)) {
+                for (TvResampler.PeriodType type : TvResampler.PeriodType.values()) {
+                    attachResampledBars(db, cache, universe, type, startDate);
                 }
             }
         }
@@ -139,15 +476,92 @@ public class Main {
         return universe;
     }
 
-    private static EtfHistory trimHistoryFrom(EtfHistory original, LocalDate startDate) {
-        List<PriceBar> filtered = original.getBars().stream()
-                .filter(b -> !b.date().isBefore(startDate))
-                .collect(Collectors.toList());
+    /**
+     * Takes each symbol from the cache (if given); the rest is loaded from the DB in one bulk
+     * load and written to the cache.
+     */
+    private static Map<String, EtfHistory> loadHistories(HistoryLoader loader, PriceCache cache,
+                                                         Set<String> symbols, LocalDate startDate) {
+        Map<String, EtfHistory> universe = new HashMap<>();
+        List<String> missing = new ArrayList<>();
+        for (String s : symbols) {
+            Optional<EtfHistory> cached = cache == null ? Optional.empty() : readCached(cache, s, startDate);
+            if (cached.isPresent()) {
+                universe.put(s, cached.get());
+            } else {
+                missing.add(s);
+            }
+        }
+        if (cache != null) {
+            System.out.println("Loaded " + universe.size() + " of " + symbols.size() + " histories from price cache " + cache.getDirectory());
+        }
 
-        return new EtfHistory(original.getSymbol(), filtered);
+        Map<String, EtfHistory> loaded = loader.loadAll(missing, startDate);
+        universe.putAll(loaded);
+        if (cache != null) {
+            loaded.values().forEach(h -> writeCached(cache, h, startDate));
+        }
+        return universe;
+    }
+
+    /**
+     * Attaches DB-aggregated weekly/monthly bars to every history, taken from the cache when present.
+     * Histories without them simply keep being resampled in the JVM.
+     */
+    private static void attachResampledBars(ChartingDbClient db, PriceCache cache, Map<String, EtfHistory> universe,
+                                            TvResampler.PeriodType type, LocalDate startDate) {
+        List<String> missing = new ArrayList<>();
+        for (EtfHistory h : universe.values()) {
+            Optional<EtfHistory> cached = Optional.empty();
+            if (cache != null) {
+                try {
+                    cached = cache.readResampled(h.getSymbol(), type, startDate);
+                } catch (Exception e) {
+                    System.out.println("WARN: Ignoring unreadable " + type + " cache entry for " + h.getSymbol() + ": " + e.getMessage());
+                }
+            }
+            if (cached.isPresent()) {
+                h.setResampled(type, cached.get());
+            } else {
+                missing.add(h.getSymbol());
+            }
+        }
+
+        try {
+            Map<String, EtfHistory> loaded = db.loadResampledHistories(missing, startDate, type);
+            for (EtfHistory bars : loaded.values()) {
+                universe.get(bars.getSymbol()).setResampled(type, bars);
+                if (cache != null) {
+                    cache.writeResampled(bars, type, startDate);
+                }
+            }
+        } catch (Exception e) {
+            System.out.println("WARN: Could not load " + type + " bars from DB, resampling in the JVM instead: " + e.getMessage());
+        }
+    }
+
+    private static Optional<EtfHistory> readCached(PriceCache cache, String symbol, LocalDate startDate) {
+        try {
+            return cache.read(symbol, startDate).filter(h -> !h.isEmpty());
+        } catch (Exception e) {
+            System.out.println("WARN: Ignoring unreadable price cache entry for " + symbol + ": " + e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private static void writeCached(PriceCache cache, EtfHistory history, LocalDate startDate) {
+        try {
+            cache.write(history, startDate);
+        } catch (Exception e) {
+            System.out.println("WARN: Could not write price cache entry for " + history.getSymbol() + ": " + e.getMessage());
+        }
     }
 
     private static void plotEquityCurve(EquityCurve curve, RotationSpeed speed, ScoreMode mode) {
+        plotEquityCurve(curve, "Dual-Momentum ETF Strategy (" + speed + ", " + mode + ") - Equity Curve");
+    }
+
+    private static void plotEquityCurve(EquityCurve curve, String title) {
         List<Date> xData = curve.dates().stream()
                 .map(Date::valueOf)
                 .collect(Collectors.toList());
@@ -155,7 +569,7 @@ public class Main {
         XYChart chart = new XYChartBuilder()
                 .width(900)
                 .height(600)
-                .title("Dual-Momentum ETF Strategy (" + speed + ", " + mode + ") - Equity Curve")
+                .title(title)
                 .xAxisTitle("Date")
                 .yAxisTitle("Equity")
                 .build();
@@ -164,4 +578,24 @@ public class Main {
 
         new SwingWrapper<>(chart).displayChart();
     }
+
+    private static void plotEquityCurves(Map<ScoreMode, EquityCurve> curves, RotationSpeed speed) {
+        XYChart chart = new XYChartBuilder()
+                .width(900)
+                .height(600)
+                .title("Dual-Momentum ETF Strategy (" + speed + ") - Equity Curves by Ranking Mode")
+                .xAxisTitle("Date")
+                .yAxisTitle("Equity")
+                .build();
+
+        for (Map.Entry<ScoreMode, EquityCurve> e : curves.entrySet()) {
+            if (e.getValue().equity().isEmpty()) continue;
+            List<Date> xData = e.getValue().dates().stream()
+                    .map(Date::valueOf)
+                    .collect(Collectors.toList());
+            chart.addSeries(e.getKey().name(), xData, e.getValue().equity());
+        }
+
+        new SwingWrapper<>(chart).displayChart();
+    }
 }
@@ -0,0 +1,149 @@
+package com.example.momentum;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/**
+ * Monte Carlo distribution of a strategy's CAGR and max drawdown, from resampled period returns
+ * of one backtest ({@link BootstrapMethod}).
+ *
+ * Each path draws as many periods as the backtest had and compounds them on the fly; CAGR and
+ * drawdown go straight into two result arrays, so a path allocates nothing. Paths run in parallel
+ * in chunks, each with its own {@link SplittableRandom} split off one seeded generator up front,
+ * so the result depends on the seed only, not on the threads.
+ */
+public final class MonteCarloBootstrap {
+
+    private static final int CHUNK_SIZE = 1024;
+
+    private final BootstrapMethod method;
+    private final int meanBlockLength;
+    private final int paths;
+    private final long seed;
+
+    /**
+     * @param meanBlockLength mean (STATIONARY) or exact (BLOCK) number of consecutive periods drawn
+     */
+    public MonteCarloBootstrap(BootstrapMethod method, int meanBlockLength, int paths, long seed) {
+        if (meanBlockLength < 1 || paths < 1) {
+            throw new IllegalArgumentException("Block length and paths must be positive: " + meanBlockLength + ", " + paths);
+        }
+        this.method = method;
+        this.meanBlockLength = meanBlockLength;
+        this.paths = paths;
+        this.seed = seed;
+    }
+
+    /**
+     * Return of each period of {@code curve}, the first one relative to {@code initialCapital}.
+     */
+    public static double[] periodReturns(EquityCurve curve, double initialCapital) {
+        List<Double> equity = curve.equity();
+        double[] returns = new double[equity.size()];
+        double previous = initialCapital;
+        for (int i = 0; i < returns.length; i++) {
+            returns[i] = equity.get(i) / previous - 1.0;
+            previous = equity.get(i);
+        }
+        return returns;
+    }
+
+    /**
+     * @param returns        one return per period, 0.01 = 1%
+     * @param periodsPerYear 12 for monthly returns
+     */
+    public Distribution run(double[] returns, int periodsPerYear) {
+        if (returns.length == 0) {
+            throw new IllegalArgumentException("No period returns to resample");
+        }
+        double[] cagr = new double[paths];
+        double[] maxDrawdown = new double[paths];
+
+        int chunks = (paths + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        SplittableRandom[] randoms = new SplittableRandom[chunks];
+        SplittableRandom root = new SplittableRandom(seed);
+        for (int c = 0; c < chunks; c++) {
+            randoms[c] = root.split();
+        }
+
+        double years = (double) returns.length / periodsPerYear;
+        IntStream.range(0, chunks).parallel().forEach(c -> {
+            SplittableRandom random = randoms[c];
+            int end = Math.min(paths, (c + 1) * CHUNK_SIZE);
+            for (int p = c * CHUNK_SIZE; p < end; p++) {
+                simulatePath(returns, random, years, cagr, maxDrawdown, p);
+            }
+        });
+
+        Arrays.sort(cagr);
+        Arrays.sort(maxDrawdown);
+        return new Distribution(cagr, maxDrawdown);
+    }
+
+    private void simulatePath(double[] returns, SplittableRandom random, double years,
+                              double[] cagr, double[] maxDrawdown, int path) {
+        int n = returns.length;
+        double restart = 1.0 / meanBlockLength;
+        double equity = 1.0;
+        double peak = 1.0;
+        double drawdown = 0.0;
+        int index = 0;
+        for (int t = 0; t < n; t++) {
+            boolean newBlock = method == BootstrapMethod.STATIONARY
+                    ? t == 0 || random.nextDouble() < restart
+                    : t % meanBlockLength == 0;
+            index = newBlock ? random.nextInt(n) : (index + 1 == n ? 0 : index + 1);
+
+            equity *= 1.0 + returns[index];
+            peak = Math.max(peak, equity);
+            drawdown = Math.max(drawdown, 1.0 - equity / peak);
+        }
+        cagr[path] = Math.pow(equity, 1.0 / years) - 1.0;
+        maxDrawdown[path] = drawdown;
+    }
+
+    /**
+     * CAGR and max drawdown of all paths, each sorted ascending.
+     */
+    public static final class Distribution {
+        private final double[] cagr;
+        private final double[] maxDrawdown;
+
+        Distribution(double[] sortedCagr, double[] sortedMaxDrawdown) {
+            this.cagr = sortedCagr;
+            this.maxDrawdown = sortedMaxDrawdown;
+        }
+
+        public int paths() {
+            return cagr.length;
+        }
+
+        /** @param percentile 0..100 */
+        public double cagrPercentile(double percentile) {
+            return percentile(cagr, percentile);
+        }
+
+        /** @param percentile 0..100; high percentiles are the deep drawdowns */
+        public double maxDrawdownPercentile(double percentile) {
+            return percentile(maxDrawdown, percentile);
+        }
+
+        /** Share of paths that ended below their starting equity. */
+        public double lossProbability() {
+            int i = Arrays.binarySearch(cagr, 0.0);
+            int below = i >= 0 ? i : -i - 1;
+            while (below > 0 && cagr[below - 1] >= 0.0) below--;
+            return (double) below / cagr.length;
+        }
+
+        // linear interpolation between the closest ranks
+        private static double percentile(double[] sorted, double percentile) {
+            double rank = Math.max(0.0, Math.min(100.0, percentile)) / 100.0 * (sorted.length - 1);
+            int lower = (int) Math.floor(rank);
+            int upper = Math.min(sorted.length - 1, lower + 1);
+            return sorted[lower] + (rank - lower) * (sorted[upper] - sorted[lower]);
+        }
+    }
+}
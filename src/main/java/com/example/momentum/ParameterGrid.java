@@ -0,0 +1,64 @@
+package com.example.momentum;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Values to try for each strategy parameter; {@link #configs()} is their cross product.
+ *
+ * Parameters a config does not use are not varied: the keep multiplier only for SLOW rotation,
+ * RS lookbacks only for RS_COMBINED and the 6-month lookback only for RETURN_6M.
+ */
+public final class ParameterGrid {
+
+    private final List<ScoreMode> scoreModes;
+    private final List<RotationSpeed> rotationSpeeds;
+    private final List<Integer> topNs;
+    private final List<Integer> maPeriods;
+    private final List<Integer> slowKeepRankMultipliers;
+    private final List<List<Integer>> rsLookbacks;
+    private final List<Integer> return6mLookbacks;
+
+    public ParameterGrid(List<ScoreMode> scoreModes,
+                         List<RotationSpeed> rotationSpeeds,
+                         List<Integer> topNs,
+                         List<Integer> maPeriods,
+                         List<Integer> slowKeepRankMultipliers,
+                         List<List<Integer>> rsLookbacks,
+                         List<Integer> return6mLookbacks) {
+        this.scoreModes = List.copyOf(scoreModes);
+        this.rotationSpeeds = List.copyOf(rotationSpeeds);
+        this.topNs = List.copyOf(topNs);
+        this.maPeriods = List.copyOf(maPeriods);
+        this.slowKeepRankMultipliers = List.copyOf(slowKeepRankMultipliers);
+        this.rsLookbacks = List.copyOf(rsLookbacks);
+        this.return6mLookbacks = List.copyOf(return6mLookbacks);
+    }
+
+    public List<BacktestConfig> configs() {
+        List<BacktestConfig> configs = new ArrayList<>();
+        for (ScoreMode mode : scoreModes) {
+            for (List<Integer> lookbacks : lookbacksOf(mode)) {
+                for (RotationSpeed speed : rotationSpeeds) {
+                    List<Integer> multipliers = speed == RotationSpeed.SLOW ? slowKeepRankMultipliers : List.of(0);
+                    for (int topN : topNs) {
+                        for (int maPeriod : maPeriods) {
+                            for (int multiplier : multipliers) {
+                                configs.add(new BacktestConfig(mode, lookbacks, speed, topN, maPeriod, multiplier));
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return configs;
+    }
+
+    private List<List<Integer>> lookbacksOf(ScoreMode mode) {
+        return switch (mode) {
+            case RS_COMBINED -> rsLookbacks;
+            case RETURN_6M -> return6mLookbacks.stream().map(List::of).toList();
+            case TV_TECHNICAL -> List.of(List.of());
+        };
+    }
+}
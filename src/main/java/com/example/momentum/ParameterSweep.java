@@ -0,0 +1,226 @@
+package com.example.momentum;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Backtests every config of a {@link ParameterGrid} on one universe, configs in parallel on the
+ * workers of a {@link RankingExecutor} (sequential by default); {@link #close()} shuts them down.
+ *
+ * Everything that does not depend on the strategy parameters is done once: the universe and its
+ * {@link PriceMatrix} are shared, and each distinct score mode and lookback combination is scored
+ * once into a {@link ScoreMatrix} over all rebalance dates, which all its configs rank from and
+ * which is kept for later runs (e.g. the folds of a {@link WalkForwardOptimizer}). A config then
+ * only costs the rankings and the rebalance loop ({@link RelativeStrengthBacktester#simulate}).
+ *
+ * While running, the best {@code LEADERBOARD_SIZE} configs by CAGR are printed whenever they change.
+ */
+public final class ParameterSweep implements AutoCloseable {
+
+    public static final Path DEFAULT_RESULTS_CSV = Path.of("output", "sweep-results.csv");
+
+    private static final int LEADERBOARD_SIZE = 5;
+
+    private static final Comparator<Map.Entry<BacktestConfig, BacktestResult>> BEST_FIRST =
+            Comparator.comparingDouble((Map.Entry<BacktestConfig, BacktestResult> e) -> e.getValue().cagr()).reversed()
+                    .thenComparing(e -> e.getKey().toString());
+
+    private final Map<String, EtfHistory> universe;
+    private final String benchmarkSymbol;
+    private final String safetySymbol;
+    private final double initialCapital;
+    private final TvTechnicalScoreCalculator tvCalculator;
+    private final PriceMatrix priceMatrix;
+    private final List<LocalDate> rebalanceDates;
+    private final RankingWorkers workers;
+    private final Map<String, ScoreMatrix> scores = new HashMap<>(); // by BacktestConfig.scoreKey(), guarded by this
+
+    // live progress, guarded by this
+    private final List<Map.Entry<BacktestConfig, BacktestResult>> leaderboard = new ArrayList<>();
+    private int finished;
+
+    public ParameterSweep(Map<String, EtfHistory> universe,
+                          String benchmarkSymbol,
+                          String safetySymbol,
+                          double initialCapital,
+                          TvTechnicalScoreCalculator tvCalculator) {
+        this(universe, benchmarkSymbol, safetySymbol, initialCapital, tvCalculator, RankingExecutor.SEQUENTIAL, 1);
+    }
+
+    /**
+     * @param parallelism number of symbols scored, and configs backtested, at the same time
+     *                    (ignored when sequential)
+     */
+    public ParameterSweep(Map<String, EtfHistory> universe,
+                          String benchmarkSymbol,
+                          String safetySymbol,
+                          double initialCapital,
+                          TvTechnicalScoreCalculator tvCalculator,
+                          RankingExecutor executor,
+                          int parallelism) {
+        this.universe = universe;
+        this.benchmarkSymbol = benchmarkSymbol;
+        this.safetySymbol = safetySymbol;
+        this.initialCapital = initialCapital;
+        this.tvCalculator = tvCalculator;
+        this.priceMatrix = PriceMatrix.build(universe);
+        this.rebalanceDates = DateUtils.monthEndTradingDays(universe.get(benchmarkSymbol));
+        this.workers = new RankingWorkers(executor, parallelism);
+    }
+
+    /**
+     * Shuts down the worker pool, if any; the sweep must not be used afterwards.
+     */
+    @Override
+    public void close() {
+        workers.close();
+    }
+
+    /**
+     * All rebalance dates of the universe (month ends of the benchmark).
+     */
+    public List<LocalDate> getRebalanceDates() {
+        return rebalanceDates;
+    }
+
+    /**
+     * Runs all {@code configs} over the whole history, printing the leaderboard as it changes,
+     * and returns their results, best CAGR first.
+     */
+    public LinkedHashMap<BacktestConfig, BacktestResult> run(List<BacktestConfig> configs) {
+        return run(configs, null, null, true);
+    }
+
+    /**
+     * Runs all {@code configs} over the rebalance dates from {@code from} to {@code to} (see
+     * {@link RelativeStrengthBacktester#simulate(double, LocalDate, LocalDate)}) without printing,
+     * and returns their results, best CAGR first.
+     */
+    public LinkedHashMap<BacktestConfig, BacktestResult> run(List<BacktestConfig> configs, LocalDate from, LocalDate to) {
+        return run(configs, from, to, false);
+    }
+
+    /**
+     * One config over the rebalance dates from {@code from} to {@code to}, starting with {@code initialCapital}.
+     */
+    public BacktestResult simulate(BacktestConfig config, double initialCapital, LocalDate from, LocalDate to) {
+        return backtester(config).simulate(initialCapital, from, to);
+    }
+
+    private LinkedHashMap<BacktestConfig, BacktestResult> run(List<BacktestConfig> configs, LocalDate from, LocalDate to,
+                                                              boolean live) {
+        configs.forEach(config -> scoresOf(config, live));
+
+        synchronized (this) {
+            leaderboard.clear();
+            finished = 0;
+        }
+        BacktestResult[] results = new BacktestResult[configs.size()];
+        workers.forEach(configs.size(), (out, i) -> {
+            BacktestConfig config = configs.get(i);
+            results[i] = backtester(config).simulate(initialCapital, from, to);
+            if (live) {
+                reportProgress(config, results[i], configs.size());
+            }
+        });
+
+        List<Map.Entry<BacktestConfig, BacktestResult>> sorted = new ArrayList<>();
+        for (int i = 0; i < results.length; i++) {
+            sorted.add(Map.entry(configs.get(i), results[i]));
+        }
+        sorted.sort(BEST_FIRST);
+        LinkedHashMap<BacktestConfig, BacktestResult> byRank = new LinkedHashMap<>();
+        sorted.forEach(e -> byRank.put(e.getKey(), e.getValue()));
+        return byRank;
+    }
+
+    /**
+     * Writes one line per config: rank, parameters, CAGR, max drawdown, annual turnover, final equity.
+     */
+    public void writeCsv(Map<BacktestConfig, BacktestResult> results, Path path) {
+        StringBuilder sb = new StringBuilder(
+                "rank,scoreMode,lookbackDays,rotationSpeed,topN,maPeriod,keepMultiplier,cagr,maxDrawdown,annualTurnover,finalEquity\n");
+        int rank = 1;
+        for (Map.Entry<BacktestConfig, BacktestResult> e : results.entrySet()) {
+            BacktestConfig c = e.getKey();
+            BacktestResult r = e.getValue();
+            sb.append(String.format(Locale.US, "%d,%s,%s,%s,%d,%d,%s,%.6f,%.6f,%.4f,%.2f%n",
+                    rank++, c.scoreMode(), c.lookbacksLabel(), c.rotationSpeed(), c.topN(), c.maPeriod(),
+                    c.rotationSpeed() == RotationSpeed.SLOW ? String.valueOf(c.slowKeepRankMultiplier()) : "",
+                    r.cagr(), r.maxDrawdown(), r.annualTurnover(), r.finalEquity(initialCapital)));
+        }
+        try {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            Files.writeString(path, sb);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write sweep results to " + path, e);
+        }
+    }
+
+    private RelativeStrengthBacktester backtester(BacktestConfig config) {
+        ScoreCalculator calculator = new PrecomputedScoreCalculator(scoresOf(config, false), calculatorFor(config));
+        return new RelativeStrengthBacktester(
+                universe, priceMatrix, new EtfRanker(calculator, config.scoreMode()), config.topN(), benchmarkSymbol,
+                safetySymbol, config.maPeriod(), config.rotationSpeed(), config.slowKeepRankMultiplier(), false, null);
+    }
+
+    private synchronized ScoreMatrix scoresOf(BacktestConfig config, boolean print) {
+        ScoreMatrix matrix = scores.get(config.scoreKey());
+        if (matrix == null) {
+            long start = System.nanoTime();
+            matrix = scoreMatrix(calculatorFor(config));
+            scores.put(config.scoreKey(), matrix);
+            if (print) {
+                System.out.printf("Scored %s in %d ms%n", config.scoreKey(), (System.nanoTime() - start) / 1_000_000);
+            }
+        }
+        return matrix;
+    }
+
+    private ScoreMatrix scoreMatrix(ScoreCalculator calculator) {
+        ScoreMatrix matrix = new ScoreMatrix(rebalanceDates, universe.keySet());
+        List<String> symbols = matrix.getSymbols();
+        workers.forEach(symbols.size(), (out, s) -> calculator.computeScores(universe.get(symbols.get(s)), matrix, s));
+        return matrix;
+    }
+
+    private ScoreCalculator calculatorFor(BacktestConfig config) {
+        return switch (config.scoreMode()) {
+            case RS_COMBINED -> new CombinedMomentumCalculator(config.lookbackArray());
+            case RETURN_6M -> new SixMonthReturnCalculator(config.lookbackArray()[0]);
+            case TV_TECHNICAL -> tvCalculator;
+        };
+    }
+
+    private synchronized void reportProgress(BacktestConfig config, BacktestResult result, int total) {
+        finished++;
+        Map.Entry<BacktestConfig, BacktestResult> entry = Map.entry(config, result);
+        leaderboard.add(entry);
+        leaderboard.sort(BEST_FIRST);
+        boolean changed = leaderboard.indexOf(entry) < LEADERBOARD_SIZE;
+        if (leaderboard.size() > LEADERBOARD_SIZE) {
+            leaderboard.remove(leaderboard.size() - 1);
+        }
+
+        if (changed) {
+            System.out.println("Leaderboard after " + finished + "/" + total + " configs:");
+            for (int i = 0; i < leaderboard.size(); i++) {
+                System.out.println("  " + (i + 1) + ". " + format(leaderboard.get(i)));
+            }
+        } else if (finished == total || finished % Math.max(1, total / 10) == 0) {
+            System.out.println("Finished " + finished + "/" + total + " configs");
+        }
+    }
+
+    static String format(Map.Entry<BacktestConfig, BacktestResult> e) {
+        BacktestResult r = e.getValue();
+        return String.format(Locale.US, "%s | CAGR=%.2f%% | maxDD=%.2f%% | turnover=%.2f/yr",
+                e.getKey(), r.cagr() * 100.0, r.maxDrawdown() * 100.0, r.annualTurnover());
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.momentum;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+/**
+ * Answers from a filled {@link ScoreMatrix} (e.g. one mode of {@link FusedScoreCalculator}) and
+ * asks {@code fallback} for dates or symbols the matrix does not cover. Lets several
+ * {@link EtfRanker}s share one scoring pass.
+ */
+public final class PrecomputedScoreCalculator implements ScoreCalculator {
+
+    private final ScoreMatrix scores;
+    private final ScoreCalculator fallback;
+
+    public PrecomputedScoreCalculator(ScoreMatrix scores, ScoreCalculator fallback) {
+        this.scores = scores;
+        this.fallback = fallback;
+    }
+
+    @Override
+    public Optional<ScoreSnapshot> computeScore(EtfHistory history, LocalDate asOfDate) {
+        double[] out = new double[4];
+        if (!computeScoreInto(history, asOfDate, out)) return Optional.empty();
+        return Optional.of(ScoreCalculator.snapshotOf(out));
+    }
+
+    @Override
+    public boolean computeScoreInto(EtfHistory history, LocalDate asOfDate, double[] out) {
+        int row = scores.rowOf(asOfDate);
+        int symbol = scores.symbolIndex(history.getSymbol());
+        if (row < 0 || symbol < 0) {
+            return fallback.computeScoreInto(history, asOfDate, out);
+        }
+        return scores.copyInto(row, symbol, out);
+    }
+
+    /**
+     * Copies the column when both matrices have the symbol; dates missing from the precomputed
+     * matrix go to the fallback.
+     */
+    @Override
+    public void computeScores(EtfHistory history, ScoreMatrix matrix, int symbol) {
+        int source = scores.symbolIndex(history.getSymbol());
+        if (source < 0) {
+            fallback.computeScores(history, matrix, symbol);
+            return;
+        }
+        int[] have = scores.epochDays();
+        int[] want = matrix.epochDays();
+        double[] out = new double[4];
+        int from = 0;
+        for (int row = 0; row < want.length; row++) {
+            while (from < have.length && have[from] < want[row]) from++;
+            boolean scored = from < have.length && have[from] == want[row]
+                    ? scores.copyInto(from, source, out)
+                    : fallback.computeScoreInto(history, matrix.date(row), out);
+            if (scored) {
+                matrix.set(row, symbol, out);
+            }
+        }
+    }
+}
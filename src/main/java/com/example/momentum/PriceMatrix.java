@@ -0,0 +1,154 @@
+package com.example.momentum;
+
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Dense calendar x symbol matrix of closes, aligned on the union of all trading days in the universe.
+ *
+ * Closes are forward-filled, so {@code close(s, t)} equals
+ * {@code history.getCloseOnOrBefore(calendarDate(t))} for every symbol. Days before a symbol's
+ * first bar are NaN. Built once per universe; all lookups afterwards are plain array indexing.
+ *
+ * Used for the holding-period returns and the daily simulation. Indicators that need a symbol's own
+ * bars (the benchmark SMA, lookback returns, ATR) still read its {@link EtfHistory}.
+ */
+public class PriceMatrix {
+
+    private final List<String> symbols;               // sorted, index = column
+    private final Map<String, Integer> symbolIndex;
+    private final int[] calendar;                     // epoch days, ascending
+    private final double[][] closes;                  // [symbol][day]
+
+    private PriceMatrix(List<String> symbols, int[] calendar, double[][] closes) {
+        this.symbols = symbols;
+        this.calendar = calendar;
+        this.closes = closes;
+        this.symbolIndex = new HashMap<>();
+        for (int i = 0; i < symbols.size(); i++) {
+            symbolIndex.put(symbols.get(i), i);
+        }
+    }
+
+    public static PriceMatrix build(Map<String, EtfHistory> universe) {
+        List<String> symbols = new ArrayList<>(universe.keySet());
+        Collections.sort(symbols);
+
+        // Union of all trading days: mark them in a bit set over the covered epoch-day range.
+        int minDay = Integer.MAX_VALUE;
+        int maxDay = Integer.MIN_VALUE;
+        for (EtfHistory h : universe.values()) {
+            if (h.isEmpty()) continue;
+            minDay = Math.min(minDay, h.epochDay(0));
+            maxDay = Math.max(maxDay, h.epochDay(h.size() - 1));
+        }
+        if (minDay > maxDay) {
+            return new PriceMatrix(symbols, new int[0], new double[symbols.size()][0]);
+        }
+
+        BitSet days = new BitSet(maxDay - minDay + 1);
+        for (EtfHistory h : universe.values()) {
+            for (int i = 0; i < h.size(); i++) {
+                days.set(h.epochDay(i) - minDay);
+            }
+        }
+        int[] calendar = new int[days.cardinality()];
+        int t = 0;
+        for (int bit = days.nextSetBit(0); bit >= 0; bit = days.nextSetBit(bit + 1)) {
+            calendar[t++] = minDay + bit;
+        }
+
+        double[][] closes = new double[symbols.size()][];
+        for (int s = 0; s < symbols.size(); s++) {
+            closes[s] = forwardFill(universe.get(symbols.get(s)), calendar);
+        }
+        return new PriceMatrix(symbols, calendar, closes);
+    }
+
+    private static double[] forwardFill(EtfHistory h, int[] calendar) {
+        double[] column = new double[calendar.length];
+        int i = -1; // last bar of h on or before calendar[t]
+        double last = Double.NaN;
+        for (int t = 0; t < calendar.length; t++) {
+            while (i + 1 < h.size() && h.epochDay(i + 1) <= calendar[t]) {
+                i++;
+                last = h.close(i);
+            }
+            column[t] = last;
+        }
+        return column;
+    }
+
+    public List<String> getSymbols() {
+        return Collections.unmodifiableList(symbols);
+    }
+
+    public int symbolCount() {
+        return symbols.size();
+    }
+
+    public int dayCount() {
+        return calendar.length;
+    }
+
+    /**
+     * Column of {@code symbol}, or -1 if it is not part of the matrix.
+     */
+    public int symbolIndex(String symbol) {
+        Integer idx = symbolIndex.get(symbol);
+        return idx == null ? -1 : idx;
+    }
+
+    public LocalDate calendarDate(int day) {
+        return LocalDate.ofEpochDay(calendar[day]);
+    }
+
+    /**
+     * Index of the last calendar day on or before {@code date}, or -1 if there is none.
+     */
+    public int dayIndexOnOrBefore(LocalDate date) {
+        int idx = Arrays.binarySearch(calendar, (int) date.toEpochDay());
+        return idx >= 0 ? idx : -idx - 2;
+    }
+
+    public double close(int symbol, int day) {
+        return closes[symbol][day];
+    }
+
+    /**
+     * Forward-filled close of {@code symbol} as of {@code date}, NaN if unavailable.
+     */
+    public double closeOnOrBefore(int symbol, LocalDate date) {
+        int day = dayIndexOnOrBefore(date);
+        return day < 0 ? Double.NaN : closes[symbol][day];
+    }
+
+    /**
+     * Simple returns between consecutive dates: {@code result[p][s]} is the return of symbol s
+     * from {@code dates[p]} to {@code dates[p + 1]}, NaN when either close is unavailable.
+     */
+    public double[][] periodReturns(List<LocalDate> dates) {
+        int periods = Math.max(0, dates.size() - 1);
+        int[] dayIdx = new int[dates.size()];
+        for (int i = 0; i < dates.size(); i++) {
+            dayIdx[i] = dayIndexOnOrBefore(dates.get(i));
+        }
+
+        double[][] returns = new double[periods][symbols.size()];
+        for (int p = 0; p < periods; p++) {
+            int from = dayIdx[p];
+            int to = dayIdx[p + 1];
+            double[] row = returns[p];
+            for (int s = 0; s < row.length; s++) {
+                if (from < 0 || to < 0) {
+                    row[s] = Double.NaN;
+                    continue;
+                }
+                double pFrom = closes[s][from];
+                double pTo = closes[s][to];
+                row[s] = (pTo / pFrom) - 1.0; // NaN propagates for unlisted symbols
+            }
+        }
+        return returns;
+    }
+}
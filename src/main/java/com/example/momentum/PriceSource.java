@@ -0,0 +1,11 @@
+package com.example.momentum;
+
+import java.util.Map;
+
+/**
+ * Produces the universe of price histories a backtest runs on, keyed by symbol.
+ */
+@FunctionalInterface
+public interface PriceSource {
+    Map<String, EtfHistory> loadUniverse() throws Exception;
+}
@@ -0,0 +1,13 @@
+package com.example.momentum;
+
+/**
+ * How {@link EtfRanker} spreads the scoring of one ranking over threads.
+ */
+public enum RankingExecutor {
+    /** Score symbols one after another on the calling thread. */
+    SEQUENTIAL,
+    /** Score symbols on a dedicated fork-join pool. */
+    FORK_JOIN,
+    /** Score symbols on virtual threads (Java 21+), platform threads otherwise (see {@link TaskExecutors}). */
+    VIRTUAL_THREADS
+}
@@ -0,0 +1,80 @@
+package com.example.momentum;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Worker pool of a {@link RankingExecutor}, shared by everything that scores symbols in parallel
+ * ({@link EtfRanker}, {@link FusedScoreCalculator}, {@link ParameterSweep}), so MOMENTUM_RANK_EXECUTOR
+ * and MOMENTUM_RANK_THREADS apply to all of them. {@link #close()} shuts the pool down.
+ */
+final class RankingWorkers implements AutoCloseable {
+
+    private final ExecutorService executor; // null when sequential
+    private final int parallelism;
+
+    /**
+     * @param parallelism number of tasks run at the same time (ignored when sequential)
+     */
+    RankingWorkers(RankingExecutor executor, int parallelism) {
+        this.parallelism = Math.max(1, parallelism);
+        this.executor = switch (executor) {
+            case SEQUENTIAL -> null;
+            case FORK_JOIN -> new ForkJoinPool(this.parallelism);
+            case VIRTUAL_THREADS -> TaskExecutors.newBlockingTaskExecutor(this.parallelism);
+        };
+    }
+
+    /**
+     * Runs {@code task} for indices 0..count-1: on the calling thread when sequential, otherwise on
+     * {@code parallelism} workers that take indices in ascending order. Each worker passes its own
+     * double[4] scratch array. Must not be called from within a task.
+     */
+    void forEach(int count, ObjIntConsumer<double[]> task) {
+        if (executor == null || parallelism == 1 || count <= 1) {
+            double[] out = new double[4];
+            for (int i = 0; i < count; i++) task.accept(out, i);
+            return;
+        }
+
+        AtomicInteger next = new AtomicInteger();
+        Runnable worker = () -> {
+            double[] out = new double[4];
+            for (int i = next.getAndIncrement(); i < count; i = next.getAndIncrement()) {
+                task.accept(out, i);
+            }
+        };
+        List<Future<?>> workers = new ArrayList<>();
+        for (int w = Math.min(parallelism, count); w > 0; w--) {
+            workers.add(executor.submit(worker));
+        }
+        for (Future<?> f : workers) {
+            try {
+                f.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while scoring", e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException re) throw re;
+                if (e.getCause() instanceof Error err) throw err;
+                throw new IllegalStateException("Scoring failed", e.getCause());
+            }
+        }
+    }
+
+    /**
+     * Shuts down the pool, if any. Running tasks finish; the workers must not be used afterwards.
+     */
+    @Override
+    public void close() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+}
@@ -11,6 +11,8 @@ import java.nio.file.StandardOpenOption;
 
 public class RelativeStrengthBacktester {
 
+    public static final Path DEFAULT_RANKINGS_CSV = Paths.get("output", "ranked-universe.csv");
+
     private final Map<String, EtfHistory> universe;
     private final EtfRanker ranker;
     private final int topN;
@@ -22,6 +24,8 @@ public class RelativeStrengthBacktester {
     private final int slowKeepRankMultiplier;
     private final int atrPeriodDays = 20; // for ATR%
     private final Path rankingsCsvPath;
+    private final PriceMatrix priceMatrix;
+    private final boolean reportRankings;
 
     public RelativeStrengthBacktester(Map<String, EtfHistory> universe,
                                       EtfRanker ranker,
@@ -31,6 +35,45 @@ public class RelativeStrengthBacktester {
                                       int maPeriod,
                                       RotationSpeed rotationSpeed,
                                       int slowKeepRankMultiplier) {
+        this(universe, ranker, topN, benchmarkSymbol, safetySymbol, maPeriod, rotationSpeed, slowKeepRankMultiplier,
+                true, DEFAULT_RANKINGS_CSV);
+    }
+
+    /**
+     * @param reportRankings print the full ranked universe of every rebalance date and write it to
+     *                       {@code rankingsCsvPath}. Without it, rankings only need to be exact
+     *                       as far down as selection looks, which lets TV_TECHNICAL skip most
+     *                       weekly and daily ratings (see {@link EtfRanker#rank(Map, LocalDate, int)}).
+     */
+    public RelativeStrengthBacktester(Map<String, EtfHistory> universe,
+                                      EtfRanker ranker,
+                                      int topN,
+                                      String benchmarkSymbol,
+                                      String safetySymbol,
+                                      int maPeriod,
+                                      RotationSpeed rotationSpeed,
+                                      int slowKeepRankMultiplier,
+                                      boolean reportRankings,
+                                      Path rankingsCsvPath) {
+        this(universe, null, ranker, topN, benchmarkSymbol, safetySymbol, maPeriod, rotationSpeed, slowKeepRankMultiplier,
+                reportRankings, rankingsCsvPath);
+    }
+
+    /**
+     * @param priceMatrix closes of {@code universe} (see {@link PriceMatrix#build}), shared between
+     *                    backtests of one universe; null to build it here
+     */
+    RelativeStrengthBacktester(Map<String, EtfHistory> universe,
+                               PriceMatrix priceMatrix,
+                               EtfRanker ranker,
+                               int topN,
+                               String benchmarkSymbol,
+                               String safetySymbol,
+                               int maPeriod,
+                               RotationSpeed rotationSpeed,
+                               int slowKeepRankMultiplier,
+                               boolean reportRankings,
+                               Path rankingsCsvPath) {
         this.universe = universe;
         this.ranker = ranker;
         this.topN = topN;
@@ -39,6 +82,7 @@ public class RelativeStrengthBacktester {
         this.maPeriod = maPeriod;
         this.rotationSpeed = rotationSpeed;
         this.slowKeepRankMultiplier = slowKeepRankMultiplier;
+        this.reportRankings = reportRankings;
 
         if (!universe.containsKey(benchmarkSymbol)) {
             throw new IllegalArgumentException("Universe does not contain benchmark: " + benchmarkSymbol);
@@ -47,8 +91,8 @@ public class RelativeStrengthBacktester {
             throw new IllegalArgumentException("Universe does not contain safety asset: " + safetySymbol);
         }
 
-        this.rankingsCsvPath = Paths.get("output", "ranked-universe.csv");
-        initCsv();
+        this.priceMatrix = priceMatrix != null ? priceMatrix : PriceMatrix.build(universe);
+        this.rankingsCsvPath = rankingsCsvPath;
     }
 
     private void initCsv() {
@@ -67,12 +111,51 @@ public class RelativeStrengthBacktester {
     }
 
     public EquityCurve runBacktest(double initialCapital) {
+        return run(initialCapital, null, null, true).curve();
+    }
+
+    /**
+     * Same backtest as {@link #runBacktest} without any console or CSV output, with summary
+     * statistics. Used by {@link ParameterSweep}.
+     */
+    public BacktestResult simulate(double initialCapital) {
+        return run(initialCapital, null, null, false);
+    }
+
+    /**
+     * {@link #simulate} restricted to the rebalance dates from {@code from} to {@code to}
+     * (inclusive, null = unbounded): invests at the first of them and ends at the last.
+     * Scores and the risk-on filter still see all history before {@code from}.
+     */
+    public BacktestResult simulate(double initialCapital, LocalDate from, LocalDate to) {
+        return run(initialCapital, from, to, false);
+    }
+
+    private BacktestResult run(double initialCapital, LocalDate from, LocalDate to, boolean print) {
         if (universe.isEmpty()) {
             throw new IllegalStateException("Universe is empty");
         }
 
+        boolean report = print && reportRankings;
+        if (report) {
+            initCsv();
+        }
+
+        // Selection reads at most topN * slowKeepRankMultiplier ranks (slow keep rule), or topN
+        // picks plus up to topN kept holdings and the safety asset skipped on the way
+        int exactTop = report ? Integer.MAX_VALUE : Math.max(topN * slowKeepRankMultiplier, 2 * topN + 1);
+
         EtfHistory reference = universe.get(benchmarkSymbol);
         List<LocalDate> rebalanceDates = DateUtils.monthEndTradingDays(reference);
+        if (from != null || to != null) {
+            rebalanceDates = rebalanceDates.stream()
+                    .filter(d -> (from == null || !d.isBefore(from)) && (to == null || !d.isAfter(to)))
+                    .toList();
+        }
+        double[][] periodReturns = priceMatrix.periodReturns(rebalanceDates);
+        List<List<RankedEtf>> rankings = ranker.rankAll(
+                universe, rebalanceDates.subList(0, Math.max(0, rebalanceDates.size() - 1)), exactTop);
+        boolean[] riskOnFlags = riskOnFlags(rebalanceDates);
 
         Portfolio portfolio = new Portfolio();
         double equity = initialCapital;
@@ -81,17 +164,17 @@ public class RelativeStrengthBacktester {
         List<Double> equityValues = new ArrayList<>();
 
         List<String> previousHoldings = new ArrayList<>();
+        Map<String, Double> previousWeights = Map.of();
+        double turnover = 0.0;
 
         for (int i = 0; i < rebalanceDates.size() - 1; i++) {
             LocalDate rebalanceDate = rebalanceDates.get(i);
             LocalDate nextRebalanceDate = rebalanceDates.get(i + 1);
 
             // Always compute ranking (for score display), even if we go risk-off.
-            List<RankedEtf> ranked = ranker.rank(universe, rebalanceDate);
-            Map<String, RankedEtf> rankedBySymbol = ranked.stream()
-                    .collect(Collectors.toMap(RankedEtf::symbol, r -> r));
+            List<RankedEtf> ranked = rankings.get(i);
 
-            boolean riskOn = isRiskOn(rebalanceDate);
+            boolean riskOn = riskOnFlags[i];
 
             List<String> selected;
 
@@ -103,16 +186,28 @@ public class RelativeStrengthBacktester {
 
             portfolio.setEqualWeights(selected);
             previousHoldings = selected;
+            if (i > 0) {
+                turnover += oneWayTurnover(previousWeights, portfolio.getWeightsBySymbol());
+            }
+            previousWeights = new HashMap<>(portfolio.getWeightsBySymbol());
 
-            double periodReturn = computePortfolioReturn(portfolio, rebalanceDate, nextRebalanceDate);
+            double periodReturn = computePortfolioReturn(portfolio, periodReturns[i]);
             equity *= (1.0 + periodReturn);
 
             equityDates.add(nextRebalanceDate);
             equityValues.add(equity);
 
+            if (!print) continue;
+
+            Map<String, RankedEtf> rankedBySymbol = ranked.stream()
+                    .collect(Collectors.toMap(RankedEtf::symbol, r -> r));
+
             String holdingsDetails = selected.stream()
                     .map(sym -> {
-                        RankedEtf r = rankedBySymbol.get(sym);
+                        // beyond exactTop (e.g. the safety asset when risk-off) scores may be partial
+                        RankedEtf r = reportRankings || !rankedBySymbol.containsKey(sym)
+                                ? rankedBySymbol.get(sym)
+                                : ranker.score(universe.get(sym), rebalanceDate);
                         OptionalDouble atrPctOpt = TechnicalIndicators.atrPercent(
                                 universe.get(sym), rebalanceDate, atrPeriodDays);
 
@@ -129,14 +224,196 @@ public class RelativeStrengthBacktester {
                     rebalanceDate, nextRebalanceDate, riskOn, rotationSpeed, ranker.getMode(),
                     holdingsDetails, periodReturn * 100.0, equity);
 
-            // full ranked list in console
-            printRankedUniverse(rebalanceDate, ranked);
+            if (report) {
+                // full ranked list in console
+                printRankedUniverse(rebalanceDate, ranked);
+
+                // write ranked universe to CSV
+                appendRankingsCsv(rebalanceDate, riskOn, selected, ranked);
+            }
+        }
+
+        EquityCurve curve = new EquityCurve(equityDates, equityValues);
+        LocalDate start = rebalanceDates.isEmpty() ? null : rebalanceDates.get(0);
+        return BacktestResult.of(start, initialCapital, curve, turnover);
+    }
+
+    /**
+     * Daily-resolution version of {@link #runBacktest}: the portfolio is marked to market on
+     * every trading day of the universe, so the curve shows drawdowns within a month.
+     *
+     * Holdings are still chosen from the month-end rankings, but the benchmark MA filter is
+     * checked at every benchmark close: when it turns off, the portfolio moves to the safety asset
+     * at that close, and when it turns back on, it buys the selection of the latest ranking.
+     * Bars are walked with a {@link SymbolCursorMerge}; the MA is a running sum over a ring of
+     * the last {@code maPeriod} benchmark closes (it can differ from {@link TechnicalIndicators}
+     * in the last bits). Apart from the rebalances, a day allocates nothing.
+     *
+     * @throws IllegalStateException if a history is sampled (see {@link EtfHistory#isSampled()}):
+     *                               it has no daily bars to mark to market
+     */
+    public DailyBacktestResult runDailyBacktest(double initialCapital) {
+        if (universe.isEmpty()) {
+            throw new IllegalStateException("Universe is empty");
+        }
+        for (EtfHistory h : universe.values()) {
+            if (h.isSampled()) {
+                throw new IllegalStateException("Daily simulation needs daily bars, but " + h.getSymbol()
+                        + " only has sampled closes (turn off MOMENTUM_MONTH_END_PUSHDOWN)");
+            }
+        }
+
+        List<LocalDate> rebalanceDates = DateUtils.monthEndTradingDays(universe.get(benchmarkSymbol));
+        if (rebalanceDates.size() < 2) {
+            return new DailyBacktestResult(
+                    BacktestResult.of(null, initialCapital, new EquityCurve(List.of(), List.of()), 0.0), 0, 0);
+        }
+        int exactTop = Math.max(topN * slowKeepRankMultiplier, 2 * topN + 1);
+        List<List<RankedEtf>> rankings = ranker.rankAll(universe, rebalanceDates.subList(0, rebalanceDates.size() - 1), exactTop);
+        int[] rebalanceDays = new int[rebalanceDates.size()];
+        for (int i = 0; i < rebalanceDays.length; i++) {
+            rebalanceDays[i] = (int) rebalanceDates.get(i).toEpochDay();
+        }
+        int lastDay = rebalanceDays[rebalanceDays.length - 1];
+
+        List<String> symbols = priceMatrix.getSymbols();
+        int k = symbols.size();
+        EtfHistory[] histories = new EtfHistory[k];
+        for (int sym = 0; sym < k; sym++) {
+            histories[sym] = universe.get(symbols.get(sym));
+        }
+        int benchmark = priceMatrix.symbolIndex(benchmarkSymbol);
+
+        SymbolCursorMerge merge = new SymbolCursorMerge(histories);
+        int[] traded = new int[k];
+        double[] lastClose = new double[k];
+        Arrays.fill(lastClose, Double.NaN);
+
+        // positions: held[0..heldCount) with shares[held[j]] > 0
+        double[] shares = new double[k];
+        int[] held = new int[k];
+        int heldCount = 0;
+        double cash = initialCapital;
+        double[] targetWeight = new double[k];
+
+        double[] maWindow = new double[Math.max(1, maPeriod)];
+        int maCount = 0;
+        double maSum = 0.0;
+
+        int[] days = new int[priceMatrix.dayCount()];
+        double[] values = new double[priceMatrix.dayCount()];
+        int recorded = 0;
+
+        int rebalance = 0;               // next month end
+        List<RankedEtf> ranked = null;   // latest month-end ranking
+        List<String> previousHoldings = new ArrayList<>();
+        boolean invested = false;
+        boolean riskOn = false;
+        int riskSwitches = 0;
+        double turnover = 0.0;
+
+        int count;
+        while ((count = merge.advance(traded)) > 0 && merge.day() <= lastDay) {
+            int day = merge.day();
+            for (int j = 0; j < count; j++) {
+                int sym = traded[j];
+                double close = histories[sym].close(merge.bar(sym));
+                lastClose[sym] = close;
+                if (sym == benchmark && maPeriod > 0) {
+                    int slot = maCount % maPeriod;
+                    maSum += close - maWindow[slot];
+                    maWindow[slot] = close;
+                    maCount++;
+                }
+            }
+            if (day < rebalanceDays[0]) continue;
+
+            double benchmarkClose = lastClose[benchmark];
+            boolean riskOnToday = maPeriod > 0 && maCount >= maPeriod && !Double.isNaN(benchmarkClose)
+                    && benchmarkClose >= maSum / maPeriod;
+
+            double equity = cash;
+            for (int j = 0; j < heldCount; j++) {
+                equity += shares[held[j]] * lastClose[held[j]];
+            }
+
+            boolean monthEnd = rebalance < rankings.size() && day == rebalanceDays[rebalance];
+            boolean switched = invested && day < lastDay && riskOnToday != riskOn;
+            if (monthEnd || switched) {
+                if (monthEnd) {
+                    ranked = rankings.get(rebalance);
+                } else {
+                    riskSwitches++;
+                }
+                List<String> selected = riskOnToday ? selectHoldings(ranked, previousHoldings) : List.of(safetySymbol);
+                previousHoldings = selected;
+
+                // one-way turnover against the drifted weights, not counting the initial purchase
+                double w = 1.0 / selected.size();
+                for (String symbol : selected) {
+                    int sym = priceMatrix.symbolIndex(symbol);
+                    if (sym >= 0) targetWeight[sym] = w;
+                }
+                double change = 0.0;
+                for (int j = 0; j < heldCount; j++) {
+                    int sym = held[j];
+                    change += Math.abs(targetWeight[sym] - shares[sym] * lastClose[sym] / equity);
+                    targetWeight[sym] = 0.0;
+                    shares[sym] = 0.0;
+                }
+                for (String symbol : selected) {
+                    int sym = priceMatrix.symbolIndex(symbol);
+                    if (sym < 0) continue;
+                    change += targetWeight[sym]; // not held before
+                    targetWeight[sym] = 0.0;
+                }
+                if (invested) turnover += change / 2.0;
+
+                // buy at today's close; symbols without a price yet stay in cash, like a NaN period return
+                heldCount = 0;
+                cash = equity;
+                for (String symbol : selected) {
+                    int sym = priceMatrix.symbolIndex(symbol);
+                    double price = sym < 0 ? Double.NaN : lastClose[sym];
+                    if (Double.isNaN(price) || price <= 0.0) continue;
+                    held[heldCount++] = sym;
+                    shares[sym] = equity * w / price;
+                    cash -= equity * w;
+                }
+
+                if (monthEnd) rebalance++;
+                invested = true;
+                riskOn = riskOnToday;
+            }
 
-            // write ranked universe to CSV
-            appendRankingsCsv(rebalanceDate, riskOn, selected, ranked);
+            if (day > rebalanceDays[0]) {
+                days[recorded] = day;
+                values[recorded] = equity;
+                recorded++;
+            }
         }
 
-        return new EquityCurve(equityDates, equityValues);
+        List<LocalDate> curveDates = new ArrayList<>(recorded);
+        List<Double> curveValues = new ArrayList<>(recorded);
+        for (int i = 0; i < recorded; i++) {
+            curveDates.add(LocalDate.ofEpochDay(days[i]));
+            curveValues.add(values[i]);
+        }
+        BacktestResult result = BacktestResult.of(
+                rebalanceDates.get(0), initialCapital, new EquityCurve(curveDates, curveValues), turnover);
+        return new DailyBacktestResult(result, recorded, riskSwitches);
+    }
+
+    // Half the sum of absolute weight changes: 1.0 means the whole portfolio was replaced
+    private static double oneWayTurnover(Map<String, Double> before, Map<String, Double> after) {
+        double sum = 0.0;
+        for (Map.Entry<String, Double> e : after.entrySet()) {
+            sum += Math.abs(e.getValue() - before.getOrDefault(e.getKey(), 0.0));
+        }
+        for (Map.Entry<String, Double> e : before.entrySet()) {
+            if (!after.containsKey(e.getKey())) sum += e.getValue();
+        }
+        return sum / 2.0;
     }
 
     private String formatScoreForHolding(RankedEtf r) {
@@ -158,20 +435,31 @@ public class RelativeStrengthBacktester {
         };
     }
 
-    private boolean isRiskOn(LocalDate asOfDate) {
+    /**
+     * Benchmark close >= its {@code maPeriod}-day SMA on each of {@code dates} (ascending). One forward
+     * sweep over the benchmark's own bars; the SMA comes from its window sums like
+     * {@link TechnicalIndicators#simpleMovingAverage}, so the flags are the same as checking every date.
+     */
+    private boolean[] riskOnFlags(List<LocalDate> dates) {
+        boolean[] flags = new boolean[dates.size()];
         EtfHistory benchmark = universe.get(benchmarkSymbol);
-
-        OptionalDouble maOpt = TechnicalIndicators.simpleMovingAverage(benchmark, asOfDate, maPeriod);
-        OptionalDouble priceOpt = benchmark.getCloseOnOrBefore(asOfDate);
-
-        if (maOpt.isEmpty() || priceOpt.isEmpty()) {
-            return false;
+        if (benchmark.isSampled() || maPeriod <= 0) {
+            return flags;
         }
 
-        double ma = maOpt.getAsDouble();
-        double price = priceOpt.getAsDouble();
+        int end = -1; // last benchmark bar on or before the current date
+        for (int i = 0; i < flags.length; i++) {
+            int day = (int) dates.get(i).toEpochDay();
+            while (end + 1 < benchmark.size() && benchmark.epochDay(end + 1) <= day) {
+                end++;
+            }
+            int start = end - maPeriod + 1;
+            if (start < 0) continue;
 
-        return price >= ma;
+            double ma = benchmark.windowSums().closeSum(start, end + 1) / maPeriod;
+            flags[i] = benchmark.close(end) >= ma;
+        }
+        return flags;
     }
 
     private List<String> selectHoldings(List<RankedEtf> ranked, List<String> previousHoldings) {
@@ -258,7 +546,10 @@ public class RelativeStrengthBacktester {
         return selected;
     }
 
-    private double computePortfolioReturn(Portfolio portfolio, LocalDate from, LocalDate to) {
+    /**
+     * @param symbolReturns return of every matrix column over the holding period (see {@link PriceMatrix#periodReturns})
+     */
+    private double computePortfolioReturn(Portfolio portfolio, double[] symbolReturns) {
         Map<String, Double> weights = portfolio.getWeightsBySymbol();
 
         if (weights.isEmpty() || (weights.size() == 1 && weights.containsKey("CASH"))) {
@@ -274,15 +565,12 @@ public class RelativeStrengthBacktester {
                 continue;
             }
 
-            EtfHistory history = universe.get(symbol);
-            if (history == null) continue;
-
-            OptionalDouble pFromOpt = history.getCloseOnOrBefore(from);
-            OptionalDouble pToOpt = history.getCloseOnOrBefore(to);
+            int idx = priceMatrix.symbolIndex(symbol);
+            if (idx < 0) continue;
 
-            if (pFromOpt.isEmpty() || pToOpt.isEmpty()) continue;
+            double ret = symbolReturns[idx];
+            if (Double.isNaN(ret)) continue;
 
-            double ret = (pToOpt.getAsDouble() / pFromOpt.getAsDouble()) - 1.0;
             total += weight * ret;
         }
 
@@ -0,0 +1,19 @@
+package com.example.momentum;
+
+/**
+ * What {@link Main} runs on the loaded universe.
+ */
+public enum RunMode {
+    /** Backtest one {@link ScoreMode}. */
+    SINGLE,
+    /** Backtest every {@link ScoreMode} on one scoring pass and compare them. */
+    COMPARE,
+    /** Backtest every config of a {@link ParameterGrid} in parallel and rank them. */
+    SWEEP,
+    /** Re-optimize the {@link ParameterGrid} on a rolling window and trade the winner out of sample. */
+    WALK_FORWARD,
+    /** Backtest one {@link ScoreMode}, then bootstrap the distribution of its CAGR and drawdown. */
+    MONTE_CARLO,
+    /** Backtest one {@link ScoreMode}, marked to market and risk-checked every trading day. */
+    DAILY
+}
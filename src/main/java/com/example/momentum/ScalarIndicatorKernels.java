@@ -0,0 +1,101 @@
+package com.example.momentum;
+
+/**
+ * Plain left-to-right loops; results are identical to the original indicator code.
+ */
+public final class ScalarIndicatorKernels implements IndicatorKernels {
+
+    public static final ScalarIndicatorKernels INSTANCE = new ScalarIndicatorKernels();
+
+    private ScalarIndicatorKernels() {}
+
+    @Override
+    public double sum(double[] v, int from, int to) {
+        double sum = 0.0;
+        for (int i = from; i < to; i++) sum += v[i];
+        return sum;
+    }
+
+    @Override
+    public double dot(double[] a, double[] b, int from, int to) {
+        double sum = 0.0;
+        for (int i = from; i < to; i++) sum += a[i] * b[i];
+        return sum;
+    }
+
+    @Override
+    public double rampDot(double[] v, int from, int to) {
+        double sum = 0.0;
+        int w = 1;
+        for (int i = from; i < to; i++) {
+            sum += v[i] * w;
+            w++;
+        }
+        return sum;
+    }
+
+    @Override
+    public double max(double[] v, int from, int to) {
+        double max = Double.NEGATIVE_INFINITY;
+        for (int i = from; i < to; i++) max = Math.max(max, v[i]);
+        return max;
+    }
+
+    @Override
+    public double min(double[] v, int from, int to) {
+        double min = Double.POSITIVE_INFINITY;
+        for (int i = from; i < to; i++) min = Math.min(min, v[i]);
+        return min;
+    }
+
+    @Override
+    public double medianPriceSum(double[] high, double[] low, int from, int to) {
+        double sum = 0.0;
+        for (int i = from; i < to; i++) sum += (high[i] + low[i]) / 2.0;
+        return sum;
+    }
+
+    @Override
+    public double typicalPriceSum(double[] high, double[] low, double[] close, int from, int to) {
+        double sum = 0.0;
+        for (int i = from; i < to; i++) sum += (high[i] + low[i] + close[i]) / 3.0;
+        return sum;
+    }
+
+    @Override
+    public double typicalPriceAbsDeviationSum(double[] high, double[] low, double[] close, int from, int to, double mean) {
+        double sum = 0.0;
+        for (int i = from; i < to; i++) sum += Math.abs((high[i] + low[i] + close[i]) / 3.0 - mean);
+        return sum;
+    }
+
+    @Override
+    public double trueRangeSum(double[] high, double[] low, double[] close, int from, int to) {
+        double sum = 0.0;
+        for (int i = from; i < to; i++) {
+            double prevClose = close[i - 1];
+            double highLow = high[i] - low[i];
+            double highPrevClose = Math.abs(high[i] - prevClose);
+            double lowPrevClose = Math.abs(low[i] - prevClose);
+            sum += Math.max(highLow, Math.max(highPrevClose, lowPrevClose));
+        }
+        return sum;
+    }
+
+    @Override
+    public double buyingPressureSum(double[] low, double[] close, int from, int to) {
+        double sum = 0.0;
+        for (int i = from; i < to; i++) sum += close[i] - Math.min(low[i], close[i - 1]);
+        return sum;
+    }
+
+    @Override
+    public double trueRangeFromPrevCloseSum(double[] high, double[] low, double[] close, int from, int to) {
+        double sum = 0.0;
+        for (int i = from; i < to; i++) {
+            double prevClose = close[i - 1];
+            sum += Math.max(high[i], prevClose) - Math.min(low[i], prevClose);
+        }
+        return sum;
+    }
+}
@@ -11,5 +11,49 @@ import java.util.Optional;
  * code simple, we always return a {@link ScoreSnapshot}.
  */
 public interface ScoreCalculator {
+
+    // Indices into the output of computeScoreInto
+    int SCORE = 0;
+    int DAILY = 1;
+    int WEEKLY = 2;
+    int MONTHLY = 3;
+
     Optional<ScoreSnapshot> computeScore(EtfHistory history, LocalDate asOfDate);
+
+    /**
+     * Allocation-free variant of {@link #computeScore}: writes score, daily, weekly and monthly to
+     * {@code out[SCORE]}, {@code out[DAILY]}, {@code out[WEEKLY]}, {@code out[MONTHLY]}.
+     *
+     * @return false if there is no score (out is then left unspecified)
+     */
+    default boolean computeScoreInto(EtfHistory history, LocalDate asOfDate, double[] out) {
+        Optional<ScoreSnapshot> snapshot = computeScore(history, asOfDate);
+        if (snapshot.isEmpty()) return false;
+        out[SCORE] = snapshot.get().score();
+        out[DAILY] = snapshot.get().daily();
+        out[WEEKLY] = snapshot.get().weekly();
+        out[MONTHLY] = snapshot.get().monthly();
+        return true;
+    }
+
+    /**
+     * Scores {@code history} at every as-of date of {@code matrix} and stores them in column
+     * {@code symbol}; cells without a score are left empty. The default scores each date on its
+     * own; implementations override it with one forward sweep over the history.
+     */
+    default void computeScores(EtfHistory history, ScoreMatrix matrix, int symbol) {
+        double[] out = new double[4];
+        for (int row = 0; row < matrix.dateCount(); row++) {
+            if (computeScoreInto(history, matrix.date(row), out)) {
+                matrix.set(row, symbol, out);
+            }
+        }
+    }
+
+    /**
+     * Snapshot of the values written by {@link #computeScoreInto}.
+     */
+    static ScoreSnapshot snapshotOf(double[] out) {
+        return new ScoreSnapshot(out[SCORE], out[DAILY], out[WEEKLY], out[MONTHLY]);
+    }
 }
@@ -0,0 +1,146 @@
+package com.example.momentum;
+
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Dense rebalance date x symbol matrix of scores, filled by {@link ScoreCalculator#computeScores}
+ * (see {@link EtfRanker#scoreMatrix}). Symbols are sorted; each column is written by one
+ * calculator sweep, so columns can be filled from different threads.
+ */
+public final class ScoreMatrix {
+
+    private final List<LocalDate> dates;
+    private final int[] epochDays;
+    private final List<String> symbols;               // sorted, index = column
+    private final Map<String, Integer> symbolIndex;
+    private final boolean[][] scored;                 // [date][symbol]
+    private final double[][] score;
+    private final double[][] daily;
+    private final double[][] weekly;
+    private final double[][] monthly;
+
+    /**
+     * @param dates ascending as-of dates, one row each
+     */
+    public ScoreMatrix(List<LocalDate> dates, Collection<String> symbols) {
+        this.dates = List.copyOf(dates);
+        this.epochDays = new int[dates.size()];
+        for (int t = 0; t < epochDays.length; t++) {
+            epochDays[t] = (int) dates.get(t).toEpochDay();
+            if (t > 0 && epochDays[t] < epochDays[t - 1]) {
+                throw new IllegalArgumentException("Dates must be ascending: " + dates.get(t - 1) + ", " + dates.get(t));
+            }
+        }
+        List<String> sorted = new ArrayList<>(symbols);
+        Collections.sort(sorted);
+        this.symbols = Collections.unmodifiableList(sorted);
+        this.symbolIndex = new HashMap<>();
+        for (int s = 0; s < sorted.size(); s++) {
+            symbolIndex.put(sorted.get(s), s);
+        }
+        int rows = dates.size();
+        int columns = sorted.size();
+        this.scored = new boolean[rows][columns];
+        this.score = new double[rows][columns];
+        this.daily = new double[rows][columns];
+        this.weekly = new double[rows][columns];
+        this.monthly = new double[rows][columns];
+    }
+
+    public int dateCount() {
+        return dates.size();
+    }
+
+    public int symbolCount() {
+        return symbols.size();
+    }
+
+    public LocalDate date(int row) {
+        return dates.get(row);
+    }
+
+    /**
+     * As-of dates as epoch days, ascending. Not copied; do not modify.
+     */
+    int[] epochDays() {
+        return epochDays;
+    }
+
+    /**
+     * Row of {@code date}, or -1 if it is not one of the matrix dates.
+     */
+    public int rowOf(LocalDate date) {
+        int idx = Arrays.binarySearch(epochDays, (int) date.toEpochDay());
+        return idx >= 0 ? idx : -1;
+    }
+
+    public List<String> getSymbols() {
+        return symbols;
+    }
+
+    /**
+     * Column of {@code symbol}, or -1 if it is not part of the matrix.
+     */
+    public int symbolIndex(String symbol) {
+        Integer idx = symbolIndex.get(symbol);
+        return idx == null ? -1 : idx;
+    }
+
+    /**
+     * Stores the values written by {@link ScoreCalculator#computeScoreInto} for one cell.
+     */
+    public void set(int row, int symbol, double[] out) {
+        scored[row][symbol] = true;
+        score[row][symbol] = out[ScoreCalculator.SCORE];
+        daily[row][symbol] = out[ScoreCalculator.DAILY];
+        weekly[row][symbol] = out[ScoreCalculator.WEEKLY];
+        monthly[row][symbol] = out[ScoreCalculator.MONTHLY];
+    }
+
+    /**
+     * Writes one cell the way {@link ScoreCalculator#computeScoreInto} does.
+     *
+     * @return false if the symbol has no score on that date
+     */
+    public boolean copyInto(int row, int symbol, double[] out) {
+        if (!scored[row][symbol]) return false;
+        out[ScoreCalculator.SCORE] = score[row][symbol];
+        out[ScoreCalculator.DAILY] = daily[row][symbol];
+        out[ScoreCalculator.WEEKLY] = weekly[row][symbol];
+        out[ScoreCalculator.MONTHLY] = monthly[row][symbol];
+        return true;
+    }
+
+    public boolean hasScore(int row, int symbol) {
+        return scored[row][symbol];
+    }
+
+    public double score(int row, int symbol) {
+        return score[row][symbol];
+    }
+
+    /**
+     * Entry of one cell, or null if the symbol has no score on that date.
+     */
+    public RankedEtf entry(int row, int symbol) {
+        if (!scored[row][symbol]) return null;
+        return new RankedEtf(symbols.get(symbol), score[row][symbol], daily[row][symbol], weekly[row][symbol], monthly[row][symbol]);
+    }
+
+    /**
+     * Symbols with a score on the date of {@code row}, best first, equal scores by symbol (the
+     * same order as {@link EtfRanker#rank}).
+     */
+    public List<RankedEtf> ranking(int row) {
+        List<RankedEtf> list = new ArrayList<>(symbols.size());
+        for (int s = 0; s < symbols.size(); s++) {
+            RankedEtf entry = entry(row, s);
+            if (entry != null) {
+                list.add(entry);
+            }
+        }
+        list.sort(EtfRanker.RANK_ORDER);
+        return list;
+    }
+}
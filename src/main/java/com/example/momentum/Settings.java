@@ -0,0 +1,62 @@
+package com.example.momentum;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Optional run-time switches.
+ *
+ * Lookup order (same as {@link com.example.momentum.db.DbConfig}):
+ *  1) System property (e.g. -DMOMENTUM_PRICE_CACHE=off)
+ *  2) Environment variable
+ *  3) The given default
+ */
+public final class Settings {
+
+    private Settings() {}
+
+    public static String get(String key, String defaultValue) {
+        String v = System.getProperty(key);
+        if (isBlank(v)) v = System.getenv(key);
+        return isBlank(v) ? defaultValue : v.trim();
+    }
+
+    public static int getInt(String key, int defaultValue) {
+        String v = get(key, null);
+        if (v == null) return defaultValue;
+        try {
+            return Integer.parseInt(v);
+        } catch (NumberFormatException e) {
+            throw new IllegalStateException("Setting " + key + " must be an integer, got: " + v);
+        }
+    }
+
+    /**
+     * Comma-separated integers, e.g. "2,3,4".
+     */
+    public static List<Integer> getIntList(String key, List<Integer> defaultValue) {
+        String v = get(key, null);
+        if (v == null) return defaultValue;
+        List<Integer> values = new ArrayList<>();
+        for (String part : v.split(",")) {
+            try {
+                values.add(Integer.parseInt(part.trim()));
+            } catch (NumberFormatException e) {
+                throw new IllegalStateException("Setting " + key + " must be comma-separated integers, got: " + v);
+            }
+        }
+        return values;
+    }
+
+    public static boolean getBoolean(String key, boolean defaultValue) {
+        String v = get(key, null);
+        if (v == null) return defaultValue;
+        String s = v.toLowerCase(Locale.ROOT);
+        return s.equals("true") || s.equals("on") || s.equals("yes") || s.equals("1");
+    }
+
+    private static boolean isBlank(String s) {
+        return s == null || s.trim().isEmpty();
+    }
+}
@@ -2,7 +2,6 @@ package com.example.momentum;
 
 import java.time.LocalDate;
 import java.util.Optional;
-import java.util.OptionalDouble;
 
 /**
  * Computes the simple 6-month return in percentage terms.
@@ -22,18 +21,57 @@ public class SixMonthReturnCalculator implements ScoreCalculator {
 
     @Override
     public Optional<ScoreSnapshot> computeScore(EtfHistory history, LocalDate asOfDate) {
-        OptionalDouble closeTodayOpt = history.getCloseOnOrBefore(asOfDate);
-        if (closeTodayOpt.isEmpty()) return Optional.empty();
-        double cToday = closeTodayOpt.getAsDouble();
+        double[] out = new double[4];
+        if (!computeScoreInto(history, asOfDate, out)) return Optional.empty();
+        return Optional.of(ScoreCalculator.snapshotOf(out));
+    }
+
+    @Override
+    public boolean computeScoreInto(EtfHistory history, LocalDate asOfDate, double[] out) {
+        long asOf = asOfDate.toEpochDay();
+        return scoreAt(history, history.indexOnOrBefore(asOf), history.indexOnOrBefore(asOf - lookbackDays), out);
+    }
+
+    /**
+     * One sweep over the history: the bar indices of the as-of and lookback dates only move forward.
+     */
+    @Override
+    public void computeScores(EtfHistory history, ScoreMatrix matrix, int symbol) {
+        int[] days = matrix.epochDays();
+        double[] out = new double[4];
+        int today = -1;
+        int past = -1;
+        for (int row = 0; row < days.length; row++) {
+            today = history.indexOnOrBefore(days[row], today);
+            past = history.indexOnOrBefore((long) days[row] - lookbackDays, past);
+            if (scoreAt(history, today, past, out)) {
+                matrix.set(row, symbol, out);
+            }
+        }
+    }
+
+    int lookbackDays() {
+        return lookbackDays;
+    }
+
+    /**
+     * Score from bar indices already looked up: {@code today} for the as-of date, {@code past} for
+     * the lookback date (-1 if none).
+     */
+    boolean scoreAt(EtfHistory history, int today, int past, double[] out) {
+        if (today < 0) return false;
+        double cToday = history.close(today);
 
-        LocalDate lookbackDate = asOfDate.minusDays(lookbackDays);
-        OptionalDouble closeLookbackOpt = history.getCloseOnOrBefore(lookbackDate);
-        if (closeLookbackOpt.isEmpty()) return Optional.empty();
-        double cPast = closeLookbackOpt.getAsDouble();
-        if (cPast <= 0.0) return Optional.empty();
+        if (past < 0) return false;
+        double cPast = history.close(past);
+        if (cPast <= 0.0) return false;
 
         double retFraction = (cToday / cPast) - 1.0;
         double retPercent = retFraction * 100.0;
-        return Optional.of(ScoreSnapshot.single(retPercent));
+        out[SCORE] = retPercent;
+        out[DAILY] = retPercent;
+        out[WEEKLY] = Double.NaN;
+        out[MONTHLY] = Double.NaN;
+        return true;
     }
 }
@@ -0,0 +1,527 @@
+package com.example.momentum;
+
+import static com.example.momentum.TvRater.*;
+
+/**
+ * Incremental {@link TvRater} rating for one bar series (one symbol, one timeframe).
+ *
+ * Bars are pushed one at a time. Recursive indicators (EMAs, RSI and ADX Wilder smoothing, MACD)
+ * are advanced with their recurrences; window indicators (SMA, VWMA, HMA, stochastics, CCI, ...)
+ * are evaluated over ring buffers holding the most recent bars. Both follow the arithmetic of
+ * rating the whole history from its first bar step by step, so the 15 MA and 11 oscillator
+ * ratings are identical to it, while the cost of a push or a score no longer depends on the
+ * length of the history.
+ *
+ * Every ring is stored twice in a row, so any window is one contiguous range and the window
+ * reductions run on {@link IndicatorKernels}. With the vector kernels (MOMENTUM_SIMD=true) the
+ * window sums are no longer added strictly left to right; see {@link IndicatorKernelSelector}.
+ *
+ * Not thread-safe.
+ */
+public final class StreamingTvRater {
+
+    // SMA/EMA periods of the MA group, then EMA(13) for Bull/Bear power
+    private static final int[] EMA_PERIODS = {10, 20, 30, 50, 100, 200, 13};
+    private static final int BULL_BEAR_EMA = 6;
+
+    private static final int RSI_PERIOD = 14;
+    private static final int ADX_PERIOD = 14;
+
+    private static final IndicatorKernels KERNELS = IndicatorKernels.get();
+
+    // Ring sizes (powers of two) cover the longest window reading each series:
+    // close SMA(200), high/low/close/volume AO(34) and UO(28)+1, RSI StochRSI(14)+2
+    private static final int CLOSE_MASK = 256 - 1;
+    private static final int HL_MASK = 64 - 1;
+    private static final int SHORT_MASK = 32 - 1;
+
+    // Mirrored rings: bar i is at slot i & mask and again at (i & mask) + mask + 1 (see slot())
+    private final double[] closes = new double[2 * (CLOSE_MASK + 1)];
+    private final double[] highs = new double[2 * (HL_MASK + 1)];
+    private final double[] lows = new double[2 * (HL_MASK + 1)];
+    private final double[] hlCloses = new double[2 * (HL_MASK + 1)]; // closes on the high/low ring
+    private final double[] volumes = new double[2 * (HL_MASK + 1)];
+    private final double[] rsis = new double[SHORT_MASK + 1];
+
+    private final Recurrences state = new Recurrences();
+    private final Recurrences saved = new Recurrences();
+
+    /**
+     * Scalar state of the recursive indicators after {@code n} bars.
+     * Ring slots are never read beyond the longest window, so this is all {@link #scoreWith} must restore.
+     */
+    private static final class Recurrences {
+        int n;
+        final double[] emaSeed = new double[EMA_PERIODS.length];
+        final double[] ema = new double[EMA_PERIODS.length];
+        double rsiGain, rsiLoss;
+        double trSm, plusSm, minusSm, plusDi, minusDi, dxSeed, adx;
+        double fastSeed, slowSeed, emaFast, emaSlow, macd, signalSeed, signal;
+
+        void copyFrom(Recurrences o) {
+            n = o.n;
+            System.arraycopy(o.emaSeed, 0, emaSeed, 0, emaSeed.length);
+            System.arraycopy(o.ema, 0, ema, 0, ema.length);
+            rsiGain = o.rsiGain;
+            rsiLoss = o.rsiLoss;
+            trSm = o.trSm;
+            plusSm = o.plusSm;
+            minusSm = o.minusSm;
+            plusDi = o.plusDi;
+            minusDi = o.minusDi;
+            dxSeed = o.dxSeed;
+            adx = o.adx;
+            fastSeed = o.fastSeed;
+            slowSeed = o.slowSeed;
+            emaFast = o.emaFast;
+            emaSlow = o.emaSlow;
+            macd = o.macd;
+            signalSeed = o.signalSeed;
+            signal = o.signal;
+        }
+    }
+
+    public StreamingTvRater() {
+    }
+
+    private StreamingTvRater(StreamingTvRater o) {
+        System.arraycopy(o.closes, 0, closes, 0, closes.length);
+        System.arraycopy(o.highs, 0, highs, 0, highs.length);
+        System.arraycopy(o.lows, 0, lows, 0, lows.length);
+        System.arraycopy(o.hlCloses, 0, hlCloses, 0, hlCloses.length);
+        System.arraycopy(o.volumes, 0, volumes, 0, volumes.length);
+        System.arraycopy(o.rsis, 0, rsis, 0, rsis.length);
+        state.copyFrom(o.state);
+    }
+
+    /**
+     * Independent copy of this rater; pushing into either one does not affect the other.
+     */
+    public StreamingTvRater copy() {
+        return new StreamingTvRater(this);
+    }
+
+    /**
+     * Number of bars pushed so far.
+     */
+    public int size() {
+        return state.n;
+    }
+
+    /**
+     * Appends the next bar (bars must be pushed in ascending date order). The open is not used by any rule.
+     */
+    public void push(double high, double low, double close, double volume) {
+        Recurrences r = state;
+        int i = r.n;
+        double prevClose = i > 0 ? closes[(i - 1) & CLOSE_MASK] : Double.NaN;
+        double prevHigh = i > 0 ? highs[(i - 1) & HL_MASK] : Double.NaN;
+        double prevLow = i > 0 ? lows[(i - 1) & HL_MASK] : Double.NaN;
+
+        put(closes, CLOSE_MASK, i, close);
+        put(highs, HL_MASK, i, high);
+        put(lows, HL_MASK, i, low);
+        put(hlCloses, HL_MASK, i, close);
+        put(volumes, HL_MASK, i, volume);
+
+        // EMAs, seeded with the SMA of the first period values
+        for (int k = 0; k < EMA_PERIODS.length; k++) {
+            int period = EMA_PERIODS[k];
+            if (i < period) {
+                r.emaSeed[k] += close;
+                if (i == period - 1) r.ema[k] = r.emaSeed[k] / period;
+            } else {
+                double alpha = 2.0 / (period + 1.0);
+                r.ema[k] = alpha * close + (1.0 - alpha) * r.ema[k];
+            }
+        }
+
+        // RSI(14), Wilder smoothing seeded with the mean of the first 14 changes
+        double rsi = Double.NaN;
+        if (i >= 1) {
+            double ch = close - prevClose;
+            if (i <= RSI_PERIOD) {
+                if (ch >= 0) r.rsiGain += ch;
+                else r.rsiLoss -= ch;
+                if (i == RSI_PERIOD) {
+                    r.rsiGain /= RSI_PERIOD;
+                    r.rsiLoss /= RSI_PERIOD;
+                }
+            } else {
+                double g = ch > 0 ? ch : 0.0;
+                double l = ch < 0 ? -ch : 0.0;
+                r.rsiGain = (r.rsiGain * (RSI_PERIOD - 1) + g) / RSI_PERIOD;
+                r.rsiLoss = (r.rsiLoss * (RSI_PERIOD - 1) + l) / RSI_PERIOD;
+            }
+            if (i >= RSI_PERIOD) {
+                rsi = r.rsiLoss == 0.0 ? 100.0 : (100.0 - (100.0 / (1.0 + (r.rsiGain / r.rsiLoss))));
+            }
+        }
+        rsis[i & SHORT_MASK] = rsi;
+
+        // ADX(14): TR/+DM/-DM sums over bars 1..14, Wilder smoothing after; ADX seeded with the mean DX of bars 15..28
+        if (i >= 1) {
+            double tr = Math.max(high - low, Math.max(Math.abs(high - prevClose), Math.abs(low - prevClose)));
+            double upMove = high - prevHigh;
+            double downMove = prevLow - low;
+            double plusDm = (upMove > downMove && upMove > 0) ? upMove : 0.0;
+            double minusDm = (downMove > upMove && downMove > 0) ? downMove : 0.0;
+
+            if (i <= ADX_PERIOD) {
+                r.trSm += tr;
+                r.plusSm += plusDm;
+                r.minusSm += minusDm;
+                if (i == ADX_PERIOD) {
+                    r.plusDi = 100.0 * (r.plusSm / r.trSm);
+                    r.minusDi = 100.0 * (r.minusSm / r.trSm);
+                }
+            } else {
+                r.trSm = r.trSm - (r.trSm / ADX_PERIOD) + tr;
+                r.plusSm = r.plusSm - (r.plusSm / ADX_PERIOD) + plusDm;
+                r.minusSm = r.minusSm - (r.minusSm / ADX_PERIOD) + minusDm;
+                double pdi = 100.0 * (r.plusSm / r.trSm);
+                double mdi = 100.0 * (r.minusSm / r.trSm);
+                double dx = 100.0 * Math.abs(pdi - mdi) / (pdi + mdi);
+                if (i <= ADX_PERIOD * 2) {
+                    // The DIs of bar 14 are reported until the ADX is seeded
+                    r.dxSeed += dx;
+                    if (i == ADX_PERIOD * 2) r.adx = r.dxSeed / ADX_PERIOD;
+                } else {
+                    r.plusDi = pdi;
+                    r.minusDi = mdi;
+                    r.adx = (r.adx * (ADX_PERIOD - 1) + dx) / ADX_PERIOD;
+                }
+            }
+        }
+
+        // MACD(12,26,9)
+        double alphaFast = 2.0 / (12 + 1.0);
+        double alphaSlow = 2.0 / (26 + 1.0);
+        double alphaSignal = 2.0 / (9 + 1.0);
+        if (i < 12) {
+            r.fastSeed += close;
+            if (i == 11) r.emaFast = r.fastSeed / 12;
+        } else {
+            r.emaFast = alphaFast * close + (1.0 - alphaFast) * r.emaFast;
+        }
+        if (i < 26) {
+            r.slowSeed += close;
+            if (i == 25) r.emaSlow = r.slowSeed / 26;
+        } else {
+            r.emaSlow = alphaSlow * close + (1.0 - alphaSlow) * r.emaSlow;
+        }
+        if (i >= 25) {
+            r.macd = r.emaFast - r.emaSlow;
+            if (i <= 33) {
+                r.signalSeed += r.macd;
+                if (i == 33) r.signal = r.signalSeed / 9;
+            } else {
+                r.signal = alphaSignal * r.macd + (1.0 - alphaSignal) * r.signal;
+            }
+        }
+
+        r.n = i + 1;
+    }
+
+    /**
+     * Rating of the series as of its last pushed bar; all NaN if no bar was pushed.
+     */
+    public TvRater.TvTimeframeScore score() {
+        if (state.n == 0) {
+            return new TvRater.TvTimeframeScore(Double.NaN, Double.NaN, Double.NaN);
+        }
+        double maScore = maVotes() / (double) TvRater.MA_RULES;
+        double oscScore = oscVotes() / (double) TvRater.OSC_RULES;
+        return new TvRater.TvTimeframeScore(maScore, oscScore, (maScore + oscScore) / 2.0);
+    }
+
+    /**
+     * Overall score of {@link #score()}, without allocating.
+     */
+    public double overallScore() {
+        if (state.n == 0) return Double.NaN;
+        return (maVotes() / (double) TvRater.MA_RULES + oscVotes() / (double) TvRater.OSC_RULES) / 2.0;
+    }
+
+    /**
+     * Rating as if one more bar were pushed (e.g. the still open week or month), leaving this
+     * rater unchanged.
+     */
+    public TvRater.TvTimeframeScore scoreWith(double high, double low, double close, double volume) {
+        pushTentative(high, low, close, volume);
+        TvRater.TvTimeframeScore score = score();
+        rollback();
+        return score;
+    }
+
+    /**
+     * Overall score of {@link #scoreWith}, without allocating.
+     */
+    public double overallScoreWith(double high, double low, double close, double volume) {
+        pushTentative(high, low, close, volume);
+        double score = overallScore();
+        rollback();
+        return score;
+    }
+
+    private void pushTentative(double high, double low, double close, double volume) {
+        saved.copyFrom(state);
+        push(high, low, close, volume);
+    }
+
+    // The tentative bar only overwrote ring slots older than any window, and the next push rewrites them
+    private void rollback() {
+        state.copyFrom(saved);
+    }
+
+    private static void put(double[] ring, int mask, int i, double value) {
+        int s = i & mask;
+        ring[s] = value;
+        ring[s + mask + 1] = value;
+    }
+
+    /**
+     * Array index of bar {@code start} in a mirrored ring such that the bars [start, start + length)
+     * are contiguous from it for any length up to the ring size, and bar start - 1 is right before it.
+     */
+    private static int slot(int start, int mask) {
+        int s = start & mask;
+        return s == 0 ? mask + 1 : s;
+    }
+
+    /**
+     * Sum of the 15 moving-average votes as of the last pushed bar (at least one bar).
+     */
+    int maVotes() {
+        int end = state.n - 1;
+        double lastClose = closes[end & CLOSE_MASK];
+
+        // --- Moving Averages (15) ---
+        int ma = 0;
+        ma += comparePriceToValue(lastClose, sma(end, 10));
+        ma += comparePriceToValue(lastClose, ema(0));
+        ma += comparePriceToValue(lastClose, sma(end, 20));
+        ma += comparePriceToValue(lastClose, ema(1));
+        ma += comparePriceToValue(lastClose, sma(end, 30));
+        ma += comparePriceToValue(lastClose, ema(2));
+        ma += comparePriceToValue(lastClose, sma(end, 50));
+        ma += comparePriceToValue(lastClose, ema(3));
+        ma += comparePriceToValue(lastClose, sma(end, 100));
+        ma += comparePriceToValue(lastClose, ema(4));
+        ma += comparePriceToValue(lastClose, sma(end, 200));
+        ma += comparePriceToValue(lastClose, ema(5));
+        ma += comparePriceToValue(lastClose, vwma(end, 20));
+        ma += comparePriceToValue(lastClose, hma(end, 9));
+        ma += comparePriceToValue(lastClose, ichimokuBaseLine(end, 26));
+        return ma;
+    }
+
+    /**
+     * Sum of the 11 oscillator votes as of the last pushed bar (at least one bar).
+     */
+    int oscVotes() {
+        int end = state.n - 1;
+        Recurrences r = state;
+        double lastClose = closes[end & CLOSE_MASK];
+
+        // --- Oscillators (11) ---
+        int osc = 0;
+        osc += threshold(rsis[end & SHORT_MASK], 30, 70);
+
+        double k = stochK(end, 14);
+        double d = Double.NaN;
+        if (!Double.isNaN(k) && end >= 2) {
+            double sum = 0.0;
+            for (int i = end - 2; i <= end; i++) sum += stochK(i, 14);
+            d = sum / 3;
+        }
+        osc += stochRule(k, d);
+
+        osc += cciRule(cci(end, 20));
+
+        if (end >= ADX_PERIOD * 2) {
+            osc += adxRule(r.adx, r.plusDi, r.minusDi);
+        }
+
+        osc += sign(awesomeOscillator(end));
+        osc += sign(end >= 10 ? lastClose - closes[(end - 10) & CLOSE_MASK] : Double.NaN);
+
+        if (end >= 33) {
+            osc += crossRule(r.macd, r.signal);
+        }
+
+        osc += stochRsiRule(end);
+        osc += williamsRule(williamsR(end, 14));
+
+        double ema13 = ema(BULL_BEAR_EMA);
+        if (!Double.isNaN(ema13)) {
+            osc += bbPowerRule(highs[end & HL_MASK] - ema13, lows[end & HL_MASK] - ema13);
+        }
+
+        osc += ultimateRule(ultimateOscillator(end, 7, 14, 28));
+        return osc;
+    }
+
+    // ---------- Indicators at index end (same arithmetic as a full-history rating) ----------
+
+    private double ema(int k) {
+        return state.n >= EMA_PERIODS[k] ? state.ema[k] : Double.NaN;
+    }
+
+    private double sma(int end, int period) {
+        int start = end - period + 1;
+        if (start < 0) return Double.NaN;
+        int from = slot(start, CLOSE_MASK);
+        return KERNELS.sum(closes, from, from + period) / period;
+    }
+
+    private double vwma(int end, int period) {
+        int start = end - period + 1;
+        if (start < 0) return Double.NaN;
+        int from = slot(start, HL_MASK);
+        double num = KERNELS.dot(hlCloses, volumes, from, from + period);
+        double den = KERNELS.sum(volumes, from, from + period);
+        if (den == 0.0) return Double.NaN;
+        return num / den;
+    }
+
+    private double wma(int end, int period) {
+        int start = end - period + 1;
+        if (start < 0) return Double.NaN;
+        int from = slot(start, CLOSE_MASK);
+        double num = KERNELS.rampDot(closes, from, from + period);
+        double den = period * (period + 1) / 2.0; // 1 + 2 + ... + period
+        return den == 0.0 ? Double.NaN : (num / den);
+    }
+
+    private double hma(int end, int period) {
+        int half = period / 2;
+        int sqrt = Math.max(1, (int) Math.round(Math.sqrt(period)));
+        int diffStart = end - sqrt + 1;
+        if (diffStart < 0) return Double.NaN;
+
+        double num = 0.0;
+        double den = 0.0;
+        int w = 1;
+        for (int idx = diffStart; idx <= end; idx++) {
+            double wHalf = wma(idx, half);
+            double wFull = wma(idx, period);
+            if (Double.isNaN(wHalf) || Double.isNaN(wFull)) return Double.NaN;
+            num += (2.0 * wHalf - wFull) * w;
+            den += w;
+            w++;
+        }
+        return den == 0.0 ? Double.NaN : (num / den);
+    }
+
+    private double ichimokuBaseLine(int end, int period) {
+        int start = end - period + 1;
+        if (start < 0) return Double.NaN;
+        int from = slot(start, HL_MASK);
+        double hh = KERNELS.max(highs, from, from + period);
+        double ll = KERNELS.min(lows, from, from + period);
+        if (!Double.isFinite(hh) || !Double.isFinite(ll)) return Double.NaN;
+        return (hh + ll) / 2.0;
+    }
+
+    private double stochK(int end, int period) {
+        int start = end - period + 1;
+        if (start < 0) return Double.NaN;
+        int from = slot(start, HL_MASK);
+        double hh = KERNELS.max(highs, from, from + period);
+        double ll = KERNELS.min(lows, from, from + period);
+        double denom = hh - ll;
+        if (denom == 0.0) return 0.0;
+        return 100.0 * (closes[end & CLOSE_MASK] - ll) / denom;
+    }
+
+    private double cci(int end, int period) {
+        int start = end - period + 1;
+        if (start < 0) return Double.NaN;
+        int from = slot(start, HL_MASK);
+        double smaTp = KERNELS.typicalPriceSum(highs, lows, hlCloses, from, from + period) / period;
+        double md = KERNELS.typicalPriceAbsDeviationSum(highs, lows, hlCloses, from, from + period, smaTp);
+        md /= period;
+        if (md == 0.0) return 0.0;
+        return (typicalPrice(end) - smaTp) / (0.015 * md);
+    }
+
+    private double typicalPrice(int i) {
+        return (highs[i & HL_MASK] + lows[i & HL_MASK] + closes[i & CLOSE_MASK]) / 3.0;
+    }
+
+    private double awesomeOscillator(int end) {
+        double sma5 = medianSma(end, 5);
+        double sma34 = medianSma(end, 34);
+        if (Double.isNaN(sma5) || Double.isNaN(sma34)) return Double.NaN;
+        return sma5 - sma34;
+    }
+
+    private double medianSma(int end, int period) {
+        int start = end - period + 1;
+        if (start < 0) return Double.NaN;
+        int from = slot(start, HL_MASK);
+        return KERNELS.medianPriceSum(highs, lows, from, from + period) / period;
+    }
+
+    // Stoch RSI(14,14,3,3): K is smoothed over the same 3 raw values D averages
+    private int stochRsiRule(int end) {
+        if (end < 28) return 0;
+        double kEnd = rsiStochK(end, 14);
+        double sum = 0.0;
+        int count = 0;
+        for (int i = end - 2; i <= end; i++) {
+            double k = rsiStochK(i, 14);
+            if (Double.isNaN(k)) continue;
+            sum += k;
+            count++;
+        }
+        double d = count == 3 ? sum / 3 : Double.NaN;
+        if (count == 3) kEnd = sum / 3;
+        return stochRule(kEnd, d);
+    }
+
+    private double rsiStochK(int end, int period) {
+        int start = end - period + 1;
+        if (start < 0) return Double.NaN;
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        for (int i = start; i <= end; i++) {
+            double v = rsis[i & SHORT_MASK];
+            if (Double.isNaN(v)) return Double.NaN;
+            min = Math.min(min, v);
+            max = Math.max(max, v);
+        }
+        double denom = max - min;
+        if (denom == 0.0) return 0.0;
+        return 100.0 * (rsis[end & SHORT_MASK] - min) / denom;
+    }
+
+    private double williamsR(int end, int period) {
+        int start = end - period + 1;
+        if (start < 0) return Double.NaN;
+        int from = slot(start, HL_MASK);
+        double hh = KERNELS.max(highs, from, from + period);
+        double ll = KERNELS.min(lows, from, from + period);
+        double denom = hh - ll;
+        if (denom == 0.0) return 0.0;
+        return -100.0 * (hh - closes[end & CLOSE_MASK]) / denom;
+    }
+
+    private double ultimateOscillator(int end, int p1, int p2, int p3) {
+        if (end < p3) return Double.NaN;
+
+        int from1 = slot(end - p1 + 1, HL_MASK);
+        int from2 = slot(end - p2 + 1, HL_MASK);
+        int from3 = slot(end - p3 + 1, HL_MASK);
+        double sumBP1 = KERNELS.buyingPressureSum(lows, hlCloses, from1, from1 + p1);
+        double sumTR1 = KERNELS.trueRangeFromPrevCloseSum(highs, lows, hlCloses, from1, from1 + p1);
+        double sumBP2 = KERNELS.buyingPressureSum(lows, hlCloses, from2, from2 + p2);
+        double sumTR2 = KERNELS.trueRangeFromPrevCloseSum(highs, lows, hlCloses, from2, from2 + p2);
+        double sumBP3 = KERNELS.buyingPressureSum(lows, hlCloses, from3, from3 + p3);
+        double sumTR3 = KERNELS.trueRangeFromPrevCloseSum(highs, lows, hlCloses, from3, from3 + p3);
+
+        if (sumTR1 == 0 || sumTR2 == 0 || sumTR3 == 0) return Double.NaN;
+        return 100.0 * (4 * (sumBP1 / sumTR1) + 2 * (sumBP2 / sumTR2) + (sumBP3 / sumTR3)) / 7.0;
+    }
+}
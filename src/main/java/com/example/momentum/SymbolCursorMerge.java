@@ -0,0 +1,96 @@
+package com.example.momentum;
+
+/**
+ * Walks the bars of many histories day by day in date order: a k-way merge of one cursor per
+ * history, kept in a binary min-heap of plain ints on (next bar's day, symbol).
+ *
+ * Histories may start and end on different days and have gaps; each day reports only the symbols
+ * that have a bar on it. Moving to the next day costs O(log k) per bar and allocates nothing.
+ */
+final class SymbolCursorMerge {
+
+    private final EtfHistory[] histories;
+    private final int[] next;   // next unread bar per symbol
+    private final int[] heap;   // symbols with bars left
+    private int size;
+    private int day = Integer.MIN_VALUE;
+
+    /**
+     * @param histories one per symbol index; null or empty entries never report a bar
+     */
+    SymbolCursorMerge(EtfHistory[] histories) {
+        this.histories = histories;
+        this.next = new int[histories.length];
+        this.heap = new int[histories.length];
+        for (int s = 0; s < histories.length; s++) {
+            if (histories[s] != null && !histories[s].isEmpty()) {
+                heap[size] = s;
+                siftUp(size++);
+            }
+        }
+    }
+
+    /**
+     * Moves to the next day on which any history has a bar and writes the symbols with a bar on
+     * it to {@code out} (at least one slot per history). Returns how many; 0 once all bars are read.
+     */
+    int advance(int[] out) {
+        if (size == 0) return 0;
+        day = nextDay(heap[0]);
+        int count = 0;
+        while (size > 0 && nextDay(heap[0]) == day) {
+            int s = heap[0];
+            out[count++] = s;
+            if (++next[s] == histories[s].size()) {
+                heap[0] = heap[--size];
+            }
+            siftDown(0);
+        }
+        return count;
+    }
+
+    /** Epoch day of the last {@link #advance}. */
+    int day() {
+        return day;
+    }
+
+    /** Index of {@code symbol}'s bar on {@link #day()}, for a symbol reported by the last advance. */
+    int bar(int symbol) {
+        return next[symbol] - 1;
+    }
+
+    private int nextDay(int symbol) {
+        return histories[symbol].epochDay(next[symbol]);
+    }
+
+    private boolean less(int a, int b) {
+        int da = nextDay(a);
+        int db = nextDay(b);
+        return da < db || (da == db && a < b);
+    }
+
+    private void siftUp(int i) {
+        int s = heap[i];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!less(s, heap[parent])) break;
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = s;
+    }
+
+    private void siftDown(int i) {
+        if (size == 0) return;
+        int s = heap[i];
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size) break;
+            if (child + 1 < size && less(heap[child + 1], heap[child])) child++;
+            if (!less(heap[child], s)) break;
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = s;
+    }
+}
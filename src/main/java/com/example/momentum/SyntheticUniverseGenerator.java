@@ -0,0 +1,169 @@
+package com.example.momentum;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.stream.IntStream;
+
+/**
+ * Deterministic generator of realistic-looking daily OHLCV histories, for benchmarks and
+ * heap sizing without a database.
+ *
+ * Model:
+ * - A shared weekday calendar with a few market holidays per year.
+ * - A market factor following geometric Brownian motion whose volatility switches between a calm
+ *   and a stressed regime (two-state Markov chain).
+ * - Each symbol: own drift, beta to the market and idiosyncratic volatility, overnight gaps with
+ *   occasional large jumps, missing days, and (for part of the universe) a listing date after the start.
+ *
+ * The same (symbolCount, startDate, years, seed) always yields the same universe, independent of
+ * thread scheduling. {@link #BENCHMARK} and {@link #SAFETY} are always included and listed from the start.
+ */
+public class SyntheticUniverseGenerator implements PriceSource {
+
+    public static final String BENCHMARK = "SPY";
+    public static final String SAFETY = "IEF";
+
+    private static final double CALM_VOL = 0.008;           // daily market vol, calm regime
+    private static final double STRESSED_VOL = 0.025;       // daily market vol, stressed regime
+    private static final double CALM_DRIFT = 0.0005;        // daily market drift, calm regime
+    private static final double STRESSED_DRIFT = -0.0008;   // daily market drift, stressed regime
+    private static final double P_CALM_TO_STRESSED = 0.01;
+    private static final double P_STRESSED_TO_CALM = 0.05;
+    private static final double HOLIDAY_PROBABILITY = 9.0 / 252.0;
+    private static final double LATE_LISTING_SHARE = 0.4;
+    private static final double MISSING_DAY_PROBABILITY = 0.002;
+    private static final double JUMP_PROBABILITY = 1.0 / 63.0; // ~ once per quarter (earnings)
+
+    private final int symbolCount;
+    private final LocalDate startDate;
+    private final int years;
+    private final long seed;
+
+    /**
+     * @param symbolCount total number of symbols, including benchmark and safety (at least 2)
+     */
+    public SyntheticUniverseGenerator(int symbolCount, LocalDate startDate, int years, long seed) {
+        if (symbolCount < 2) {
+            throw new IllegalArgumentException("symbolCount must be >= 2 (benchmark and safety)");
+        }
+        if (years < 1) {
+            throw new IllegalArgumentException("years must be >= 1");
+        }
+        this.symbolCount = symbolCount;
+        this.startDate = startDate;
+        this.years = years;
+        this.seed = seed;
+    }
+
+    @Override
+    public Map<String, EtfHistory> loadUniverse() {
+        SplittableRandom marketRandom = new SplittableRandom(mix(seed));
+        int[] calendar = tradingCalendar(marketRandom);
+        double[] marketReturns = marketReturns(calendar.length, marketRandom);
+
+        // Symbols are generated independently (own random stream per index), so order and threads don't matter
+        EtfHistory[] histories = new EtfHistory[symbolCount];
+        IntStream.range(0, symbolCount).parallel()
+                .forEach(i -> histories[i] = generateSymbol(i, calendar, marketReturns));
+
+        Map<String, EtfHistory> universe = new LinkedHashMap<>();
+        for (EtfHistory h : histories) {
+            universe.put(h.getSymbol(), h);
+        }
+        return universe;
+    }
+
+    private int[] tradingCalendar(SplittableRandom random) {
+        LocalDate end = startDate.plusYears(years);
+        int[] days = new int[(int) (end.toEpochDay() - startDate.toEpochDay()) + 1];
+        int n = 0;
+        for (LocalDate d = startDate; d.isBefore(end); d = d.plusDays(1)) {
+            if (d.getDayOfWeek() == DayOfWeek.SATURDAY || d.getDayOfWeek() == DayOfWeek.SUNDAY) continue;
+            if (random.nextDouble() < HOLIDAY_PROBABILITY) continue;
+            days[n++] = (int) d.toEpochDay();
+        }
+        return Arrays.copyOf(days, n);
+    }
+
+    private static double[] marketReturns(int days, SplittableRandom random) {
+        double[] returns = new double[days];
+        boolean stressed = false;
+        for (int t = 0; t < days; t++) {
+            double switchProbability = stressed ? P_STRESSED_TO_CALM : P_CALM_TO_STRESSED;
+            if (random.nextDouble() < switchProbability) stressed = !stressed;
+            double vol = stressed ? STRESSED_VOL : CALM_VOL;
+            double drift = stressed ? STRESSED_DRIFT : CALM_DRIFT;
+            returns[t] = drift - 0.5 * vol * vol + vol * gaussian(random);
+        }
+        return returns;
+    }
+
+    private EtfHistory generateSymbol(int index, int[] calendar, double[] marketReturns) {
+        SplittableRandom random = new SplittableRandom(mix(seed * 31 + index + 1));
+        String symbol = index == 0 ? BENCHMARK : index == 1 ? SAFETY : String.format(Locale.ROOT, "SYN%05d", index);
+
+        double beta;
+        double idioVol;
+        double drift;
+        int firstDay = 0;
+        if (index == 0) {
+            beta = 1.0;
+            idioVol = 0.0;
+            drift = 0.0;
+        } else if (index == 1) {
+            beta = -0.2;   // bonds: low vol, mildly negatively correlated
+            idioVol = 0.003;
+            drift = 0.00015;
+        } else {
+            beta = 0.5 + 1.2 * random.nextDouble();
+            idioVol = 0.005 + 0.02 * random.nextDouble();
+            drift = 0.0004 * gaussian(random);
+            if (random.nextDouble() < LATE_LISTING_SHARE) {
+                firstDay = random.nextInt((int) (calendar.length * 0.6) + 1);
+            }
+        }
+
+        double baseVolume = Math.exp(12 + 2 * gaussian(random));
+        double close = 10 + 190 * random.nextDouble();
+        EtfHistory.Builder bars = new EtfHistory.Builder(symbol, calendar.length - firstDay);
+
+        for (int t = firstDay; t < calendar.length; t++) {
+            double idio = idioVol * gaussian(random);
+            double logReturn = drift + beta * marketReturns[t] + idio - 0.5 * idioVol * idioVol;
+            if (index > 1 && random.nextDouble() < JUMP_PROBABILITY) {
+                logReturn += 0.05 * gaussian(random);
+            }
+            if (random.nextDouble() < MISSING_DAY_PROBABILITY && t > firstDay) {
+                // Data gap: the move still happens, we just never see that bar
+                close *= Math.exp(logReturn);
+                continue;
+            }
+
+            // Part of the move happens overnight (gap), the rest intraday
+            double dayVol = Math.abs(beta) * Math.abs(marketReturns[t]) + idioVol + 0.002;
+            double open = close * Math.exp(0.3 * logReturn + 0.2 * dayVol * gaussian(random));
+            close = close * Math.exp(logReturn);
+            double high = Math.max(open, close) * Math.exp(Math.abs(gaussian(random)) * 0.5 * dayVol);
+            double low = Math.min(open, close) * Math.exp(-Math.abs(gaussian(random)) * 0.5 * dayVol);
+            double volume = Math.rint(baseVolume * Math.exp(0.4 * gaussian(random)) * (1.0 + 20.0 * dayVol));
+
+            bars.add(calendar[t], open, high, low, close, volume);
+        }
+        return bars.build();
+    }
+
+    private static double gaussian(SplittableRandom random) {
+        // Box-Muller; SplittableRandom has no nextGaussian on Java 17
+        double u1 = 1.0 - random.nextDouble();
+        double u2 = random.nextDouble();
+        return Math.sqrt(-2.0 * Math.log(u1)) * Math.cos(2.0 * Math.PI * u2);
+    }
+
+    // SplitMix64 finalizer, to decorrelate nearby seeds
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.momentum;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Executors for fanning out blocking work (e.g. DB reads).
+ *
+ * Uses one virtual thread per task when the running JVM has them (Java 21+); the project targets
+ * Java 17, so they are looked up reflectively and a fixed pool of platform threads is used otherwise.
+ * Callers bound concurrency themselves (e.g. by the number of pooled connections).
+ */
+public final class TaskExecutors {
+
+    private static final Method NEW_VIRTUAL_THREAD_EXECUTOR = findVirtualThreadFactoryMethod();
+
+    private TaskExecutors() {}
+
+    public static boolean virtualThreadsAvailable() {
+        return NEW_VIRTUAL_THREAD_EXECUTOR != null;
+    }
+
+    /**
+     * @param platformThreads pool size used when virtual threads are not available
+     */
+    public static ExecutorService newBlockingTaskExecutor(int platformThreads) {
+        if (NEW_VIRTUAL_THREAD_EXECUTOR != null) {
+            try {
+                return (ExecutorService) NEW_VIRTUAL_THREAD_EXECUTOR.invoke(null);
+            } catch (ReflectiveOperationException ignored) {
+                // fall through to platform threads
+            }
+        }
+        return Executors.newFixedThreadPool(Math.max(1, platformThreads), r -> {
+            Thread t = new Thread(r);
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    private static Method findVirtualThreadFactoryMethod() {
+        try {
+            return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+}
@@ -2,67 +2,42 @@
 package com.example.momentum;
 
 import java.time.LocalDate;
-import java.util.ArrayList;
-import java.util.List;
 import java.util.OptionalDouble;
 
 public class TechnicalIndicators {
 
-    public static OptionalDouble simpleMovingAverage(EtfHistory history, LocalDate asOfDate, int periodDays) {
-        List<PriceBar> bars = history.getBars();
-        double sum = 0.0;
-        int count = 0;
+    private static final IndicatorKernels KERNELS = IndicatorKernels.get();
 
-        for (int i = bars.size() - 1; i >= 0 && count < periodDays; i--) {
-            PriceBar bar = bars.get(i);
-            if (bar.date().isAfter(asOfDate)) {
-                continue;
-            }
-            sum += bar.close();
-            count++;
+    public static OptionalDouble simpleMovingAverage(EtfHistory history, LocalDate asOfDate, int periodDays) {
+        if (history.isSampled()) {
+            return OptionalDouble.empty();
         }
-
-        if (count < periodDays) {
+        int end = history.indexOnOrBefore(asOfDate);
+        int start = end - periodDays + 1;
+        if (periodDays <= 0 || start < 0) {
             return OptionalDouble.empty();
         }
 
-        return OptionalDouble.of(sum / count);
+        return OptionalDouble.of(history.windowSums().closeSum(start, end + 1) / periodDays);
     }
 
     /**
      * Wilder-style ATR: average of last N True Range values as of asOfDate.
      */
     public static OptionalDouble atr(EtfHistory history, LocalDate asOfDate, int periodDays) {
-        List<PriceBar> bars = history.getBars();
-        if (bars.size() < periodDays + 1) {
+        if (history.isSampled() || history.size() < periodDays + 1) {
             return OptionalDouble.empty();
         }
 
-        List<Double> trs = new ArrayList<>();
-        PriceBar prev = null;
-        for (PriceBar bar : bars) {
-            if (bar.date().isAfter(asOfDate)) {
-                break;
-            }
-            if (prev != null) {
-                double highLow = bar.high() - bar.low();
-                double highPrevClose = Math.abs(bar.high() - prev.close());
-                double lowPrevClose = Math.abs(bar.low() - prev.close());
-                double tr = Math.max(highLow, Math.max(highPrevClose, lowPrevClose));
-                trs.add(tr);
-            }
-            prev = bar;
-        }
-
-        if (trs.size() < periodDays) {
+        // True Range exists for every bar that has a predecessor, i.e. indices 1..end
+        int end = history.indexOnOrBefore(asOfDate);
+        if (end < periodDays) {
             return OptionalDouble.empty();
         }
 
-        double sum = 0.0;
-        int start = trs.size() - periodDays;
-        for (int i = start; i < trs.size(); i++) {
-            sum += trs.get(i);
-        }
+        int from = history.columnIndex(end - periodDays + 1);
+        int to = history.columnIndex(end) + 1;
+        double sum = KERNELS.trueRangeSum(history.highColumn(), history.lowColumn(), history.closeColumn(), from, to);
         return OptionalDouble.of(sum / periodDays);
     }
 
@@ -1,57 +1,69 @@
 package com.example.momentum;
 
-import java.time.LocalDate;
-import java.time.temporal.IsoFields;
-import java.util.*;
-
 /**
  * Resamples daily bars to weekly/monthly bars (O/H/L/C/V aggregation).
+ *
+ * Weeks are ISO weeks (Monday..Sunday), months are calendar months. A resampled bar is dated on
+ * the last trading day of its period.
  */
 public final class TvResampler {
 
     public enum PeriodType { WEEKLY, MONTHLY }
 
-    public static List<PriceBar> resample(List<PriceBar> dailyAscending, PeriodType type, LocalDate asOfDate) {
-        // Filter to <= asOfDate
-        List<PriceBar> filtered = dailyAscending.stream()
-                .filter(b -> !b.date().isAfter(asOfDate))
-                .sorted(Comparator.comparing(PriceBar::date))
-                .toList();
-        if (filtered.isEmpty()) return List.of();
-
-        Map<String, List<PriceBar>> buckets = new TreeMap<>();
-        for (PriceBar b : filtered) {
-            String key = bucketKey(b.date(), type);
-            buckets.computeIfAbsent(key, k -> new ArrayList<>()).add(b);
-        }
-
-        List<PriceBar> out = new ArrayList<>(buckets.size());
-        for (List<PriceBar> bucket : buckets.values()) {
-            bucket.sort(Comparator.comparing(PriceBar::date));
-            PriceBar first = bucket.get(0);
-            PriceBar last = bucket.get(bucket.size() - 1);
-
-            double open = first.open();
-            double close = last.close();
-            double high = bucket.stream().mapToDouble(PriceBar::high).max().orElse(Double.NaN);
-            double low = bucket.stream().mapToDouble(PriceBar::low).min().orElse(Double.NaN);
-            double vol = bucket.stream().mapToDouble(PriceBar::volume).sum();
+    /**
+     * Weekly/monthly bars of {@code daily} (the last one possibly still open as of the last daily
+     * bar), each dated on the last trading day of its period. Uses bars attached to the history
+     * (see {@link EtfHistory#getResampled}); otherwise builds them in one pass and attaches them,
+     * so each symbol is aggregated only once.
+     */
+    public static EtfHistory periodBars(EtfHistory daily, PeriodType type) {
+        EtfHistory periods = daily.getResampled(type);
+        if (periods != null) return periods;
 
-            out.add(new PriceBar(last.date(), open, high, low, close, vol));
+        EtfHistory.Builder builder = new EtfHistory.Builder(daily.getSymbol(),
+                type == PeriodType.WEEKLY ? daily.size() / 4 + 1 : daily.size() / 19 + 1);
+        int first = 0;
+        for (int i = 1; i <= daily.size(); i++) {
+            if (i == daily.size() || periodStartEpochDay(daily.epochDay(i), type) != periodStartEpochDay(daily.epochDay(first), type)) {
+                double high = Double.NEGATIVE_INFINITY;
+                double low = Double.POSITIVE_INFINITY;
+                double vol = 0.0;
+                for (int k = first; k < i; k++) {
+                    high = Math.max(high, daily.high(k));
+                    low = Math.min(low, daily.low(k));
+                    vol += daily.volume(k);
+                }
+                builder.add(daily.epochDay(i - 1), daily.open(first), high, low, daily.close(i - 1), vol);
+                first = i;
+            }
         }
-        return out;
+        periods = builder.build();
+        daily.setResampled(type, periods);
+        return periods;
     }
 
-    private static String bucketKey(LocalDate d, PeriodType type) {
+    /**
+     * First calendar day (as epoch day) of the week/month containing {@code epochDay}.
+     */
+    static long periodStartEpochDay(long epochDay, PeriodType type) {
         return switch (type) {
-            case WEEKLY -> {
-                int week = d.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR);
-                int year = d.get(IsoFields.WEEK_BASED_YEAR);
-                yield year + "-W" + String.format("%02d", week);
-            }
-            case MONTHLY -> d.getYear() + "-" + String.format("%02d", d.getMonthValue());
+            // 1970-01-05 (epoch day 4) is a Monday
+            case WEEKLY -> Math.floorDiv(epochDay - 4, 7) * 7 + 4;
+            case MONTHLY -> epochDay - dayOfMonth(epochDay) + 1;
         };
     }
 
+    // Day of month of a proleptic Gregorian epoch day, without creating a LocalDate
+    // (H. Hinnant's civil_from_days, eras of 400 years starting on March 1st)
+    private static int dayOfMonth(long epochDay) {
+        long z = epochDay + 719_468;
+        long era = Math.floorDiv(z, 146_097);
+        long doe = z - era * 146_097;
+        long yoe = (doe - doe / 1460 + doe / 36_524 - doe / 146_096) / 365;
+        long doy = doe - (365 * yoe + yoe / 4 - yoe / 100);
+        long mp = (5 * doy + 2) / 153;
+        return (int) (doy - (153 * mp + 2) / 5 + 1);
+    }
+
     private TvResampler() {}
 }
@@ -0,0 +1,128 @@
+package com.example.momentum;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Weekly/monthly TV scores as of any daily bar, without re-rating completed periods.
+ *
+ * A completed period never changes, so the indicator state after the first c periods of a symbol
+ * is kept under (symbol, timeframe, c) and a query only rates the still open period on top of it
+ * ({@link StreamingTvRater#overallScoreWith}). Walking forward, each symbol and timeframe keeps one
+ * rater that is pushed just the periods completed since the previous query; going back, it restarts
+ * from the nearest stored state at or before the query. Stored states are evicted least recently
+ * used beyond {@code capacity}, so memory stays flat over long runs.
+ *
+ * Periods come from {@link TvResampler#periodBars}, so scores equal rating the resampled bars.
+ * Thread-safe.
+ */
+final class TvScoreMemo {
+
+    private record Key(String symbol, TvResampler.PeriodType timeframe, int completed) {}
+
+    private record Checkpoint(EtfHistory history, StreamingTvRater rater) {}
+
+    private final Map<Key, Checkpoint> checkpoints; // access order, guarded by itself
+    private final Map<TvResampler.PeriodType, Map<String, Cursor>> cursors = new EnumMap<>(TvResampler.PeriodType.class);
+
+    TvScoreMemo(int capacity) {
+        this.checkpoints = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Checkpoint> eldest) {
+                return size() > capacity;
+            }
+        };
+        for (TvResampler.PeriodType type : TvResampler.PeriodType.values()) {
+            cursors.put(type, new ConcurrentHashMap<>());
+        }
+    }
+
+    /**
+     * Overall {@code timeframe} score of {@code daily} as of its bar {@code lastDaily}, including
+     * the partial period up to that bar; NaN if there is no period yet.
+     */
+    double overallScore(EtfHistory daily, TvResampler.PeriodType timeframe, int lastDaily) {
+        long periodStart = TvResampler.periodStartEpochDay(daily.epochDay(lastDaily), timeframe);
+        int firstDaily = daily.indexOnOrBefore(periodStart - 1) + 1;
+
+        double high = Double.NEGATIVE_INFINITY;
+        double low = Double.POSITIVE_INFINITY;
+        double volume = 0.0;
+        for (int i = firstDaily; i <= lastDaily; i++) {
+            high = Math.max(high, daily.high(i));
+            low = Math.min(low, daily.low(i));
+            volume += daily.volume(i);
+        }
+
+        Cursor cursor = cursorOf(daily, timeframe);
+        synchronized (cursor) {
+            cursor.moveTo(cursor.periods.indexOnOrBefore(periodStart - 1) + 1);
+            return cursor.rater.overallScoreWith(high, low, daily.close(lastDaily), volume);
+        }
+    }
+
+    private Cursor cursorOf(EtfHistory daily, TvResampler.PeriodType timeframe) {
+        Map<String, Cursor> bySymbol = cursors.get(timeframe);
+        Cursor cursor = bySymbol.get(daily.getSymbol());
+        if (cursor != null && cursor.history == daily) return cursor;
+        return bySymbol.compute(daily.getSymbol(),
+                (symbol, old) -> old == null || old.history != daily ? new Cursor(daily, timeframe) : old);
+    }
+
+    private Checkpoint checkpoint(Key key, EtfHistory history) {
+        synchronized (checkpoints) {
+            Checkpoint c = checkpoints.get(key);
+            return c != null && c.history == history ? c : null;
+        }
+    }
+
+    private void store(Key key, EtfHistory history, StreamingTvRater rater) {
+        synchronized (checkpoints) {
+            checkpoints.put(key, new Checkpoint(history, rater.copy()));
+        }
+    }
+
+    /**
+     * Rater over the first {@code completed} periods of one symbol and timeframe.
+     */
+    private final class Cursor {
+        final EtfHistory history;
+        final TvResampler.PeriodType timeframe;
+        final EtfHistory periods;
+        StreamingTvRater rater = new StreamingTvRater();
+        int completed;
+
+        Cursor(EtfHistory history, TvResampler.PeriodType timeframe) {
+            this.history = history;
+            this.timeframe = timeframe;
+            this.periods = TvResampler.periodBars(history, timeframe);
+        }
+
+        void moveTo(int target) {
+            if (target == completed) return;
+            if (target < completed) {
+                restoreAtOrBefore(target);
+            }
+            for (int k = completed; k < target; k++) {
+                rater.push(periods.high(k), periods.low(k), periods.close(k), periods.volume(k));
+            }
+            completed = target;
+            store(new Key(history.getSymbol(), timeframe, target), history, rater);
+        }
+
+        private void restoreAtOrBefore(int target) {
+            for (int c = target; c > 0; c--) {
+                Checkpoint checkpoint = checkpoint(new Key(history.getSymbol(), timeframe, c), history);
+                if (checkpoint != null) {
+                    rater = checkpoint.rater().copy();
+                    completed = c;
+                    return;
+                }
+            }
+            rater = new StreamingTvRater();
+            completed = 0;
+        }
+    }
+}
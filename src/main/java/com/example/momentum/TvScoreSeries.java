@@ -0,0 +1,56 @@
+package com.example.momentum;
+
+/**
+ * Daily TV rating of one symbol at every daily bar, computed in one streaming pass
+ * (see {@link StreamingTvRater}). Weekly and monthly scores come from {@link TvScoreMemo}.
+ *
+ * Ratings are stored as their vote sums (MA votes in [-15, 15], oscillator votes in [-11, 11]),
+ * one byte each, from which the scores are rebuilt exactly as TvRater computes them.
+ */
+public final class TvScoreSeries {
+
+    private static final int MA_RULES = TvRater.MA_RULES;
+    private static final int OSC_RULES = TvRater.OSC_RULES;
+    private static final byte NONE = Byte.MIN_VALUE;
+
+    private final EtfHistory history;
+    private final byte[] maVotes;
+    private final byte[] oscVotes;
+
+    private TvScoreSeries(EtfHistory history) {
+        this.history = history;
+        this.maVotes = new byte[history.size()];
+        this.oscVotes = new byte[history.size()];
+    }
+
+    static TvScoreSeries computeDaily(EtfHistory history) {
+        TvScoreSeries series = new TvScoreSeries(history);
+        StreamingTvRater daily = new StreamingTvRater();
+        for (int i = 0; i < history.size(); i++) {
+            daily.push(history.high(i), history.low(i), history.close(i), history.volume(i));
+            series.set(i, daily);
+        }
+        return series;
+    }
+
+    public EtfHistory getHistory() {
+        return history;
+    }
+
+    /** Overall daily score at {@code index}, without allocating. */
+    public double dailyScore(int index) {
+        byte ma = maVotes[index];
+        if (ma == NONE) return Double.NaN;
+        return (ma / (double) MA_RULES + oscVotes[index] / (double) OSC_RULES) / 2.0;
+    }
+
+    /** Stores the vote sums of {@code rater} as of its last pushed bar. */
+    private void set(int index, StreamingTvRater rater) {
+        if (rater.size() == 0) {
+            maVotes[index] = NONE;
+            return;
+        }
+        maVotes[index] = (byte) rater.maVotes();
+        oscVotes[index] = (byte) rater.oscVotes();
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.momentum;
+
+/**
+ * How {@link TvTechnicalScoreCalculator} evaluates ratings over time.
+ */
+public enum TvScoringMode {
+    /** Rate every bar of a symbol once, up front; each as-of date is then a lookup. */
+    SERIES,
+    /** Advance per-symbol indicator state only up to the requested dates. */
+    INCREMENTAL
+}
@@ -1,8 +1,9 @@
 package com.example.momentum;
 
 import java.time.LocalDate;
-import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * TradingView-style technical score.
@@ -14,6 +15,17 @@ import java.util.Optional;
  *
  * Ranking is lexicographic on (monthly, weekly, daily). We encode this into
  * a single sort score so the existing backtest selection logic keeps working.
+ *
+ * Weekly and monthly scores come from a {@link TvScoreMemo}: completed periods are rated once per
+ * symbol, and a request only rates the still open period on top of them.
+ *
+ * In {@link TvScoringMode#SERIES} mode (default) the first request for a symbol rates all of its
+ * daily bars in one pass; every daily score after that is a lookup.
+ *
+ * In {@link TvScoringMode#INCREMENTAL} mode daily indicator state is kept per symbol in a
+ * {@link StreamingTvRater} and advanced only over the bars added since the previous call, so a
+ * backtest walking forward in time does O(1) work per bar and never rates bars beyond its last
+ * date. Going back in time restarts the symbol's daily state.
  */
 public class TvTechnicalScoreCalculator implements ScoreCalculator {
 
@@ -21,29 +33,140 @@ public class TvTechnicalScoreCalculator implements ScoreCalculator {
     private static final double MONTHLY_W = 1_000_000.0;
     private static final double WEEKLY_W = 1_000.0;
 
+    private final TvScoringMode mode;
+    private final Map<String, TvScoreSeries> series = new ConcurrentHashMap<>();
+    private final Map<String, SymbolState> states = new ConcurrentHashMap<>();
+    private final TvScoreMemo memo = new TvScoreMemo(Settings.getInt("MOMENTUM_TV_MEMO_SIZE", 4096));
+
+    public TvTechnicalScoreCalculator() {
+        this(TvScoringMode.SERIES);
+    }
+
+    public TvTechnicalScoreCalculator(TvScoringMode mode) {
+        this.mode = mode;
+    }
+
     @Override
     public Optional<ScoreSnapshot> computeScore(EtfHistory history, LocalDate asOfDate) {
-        List<PriceBar> dailyBars = history.getBars().stream()
-                .filter(b -> !b.date().isAfter(asOfDate))
-                .toList();
+        double[] out = new double[4];
+        if (!computeScoreInto(history, asOfDate, out)) return Optional.empty();
+        return Optional.of(ScoreCalculator.snapshotOf(out));
+    }
 
-        if (dailyBars.isEmpty()) return Optional.empty();
+    @Override
+    public boolean computeScoreInto(EtfHistory history, LocalDate asOfDate, double[] out) {
+        int last = history.indexOnOrBefore(asOfDate);
+        return last >= 0 && scoreAt(history, last, out);
+    }
 
-        TvRater.TvTimeframeScore daily = TvRater.rate(dailyBars);
-        TvRater.TvTimeframeScore weekly = TvRater.rate(TvResampler.resample(history.getBars(), TvResampler.PeriodType.WEEKLY, asOfDate));
-        TvRater.TvTimeframeScore monthly = TvRater.rate(TvResampler.resample(history.getBars(), TvResampler.PeriodType.MONTHLY, asOfDate));
+    /**
+     * Score as of daily bar {@code last} (which must exist).
+     */
+    boolean scoreAt(EtfHistory history, int last, double[] out) {
+        out[DAILY] = score(history, last, DAILY);
+        out[WEEKLY] = score(history, last, WEEKLY);
+        out[MONTHLY] = score(history, last, MONTHLY);
 
-        double d = daily.overallScore();
-        double w = weekly.overallScore();
-        double m = monthly.overallScore();
+        double d = out[DAILY];
+        double w = out[WEEKLY];
+        double m = out[MONTHLY];
+        if (Double.isNaN(d) && Double.isNaN(w) && Double.isNaN(m)) return false;
 
-        if (Double.isNaN(d) && Double.isNaN(w) && Double.isNaN(m)) return Optional.empty();
+        out[SCORE] = combine(d, w, m);
+        return true;
+    }
+
+    /**
+     * One sweep over the history; in INCREMENTAL mode this advances the symbol's state exactly once.
+     */
+    @Override
+    public void computeScores(EtfHistory history, ScoreMatrix matrix, int symbol) {
+        int[] days = matrix.epochDays();
+        double[] out = new double[4];
+        int last = -1;
+        for (int row = 0; row < days.length; row++) {
+            last = history.indexOnOrBefore(days[row], last);
+            if (last >= 0 && scoreAt(history, last, out)) {
+                matrix.set(row, symbol, out);
+            }
+        }
+    }
 
-        double sortScore = safe(m) * MONTHLY_W + safe(w) * WEEKLY_W + safe(d);
-        return Optional.of(new ScoreSnapshot(sortScore, d, w, m));
+    /**
+     * Overall score of one timeframe ({@link #DAILY}, {@link #WEEKLY} or {@link #MONTHLY}) as of
+     * {@code asOfDate}, without rating the other two; NaN if there is no bar yet.
+     */
+    double timeframeScore(EtfHistory history, LocalDate asOfDate, int timeframe) {
+        int last = history.indexOnOrBefore(asOfDate);
+        return last < 0 ? Double.NaN : score(history, last, timeframe);
+    }
+
+    /**
+     * Sort score of the three timeframe scores; NaN counts as 0. A difference in a higher timeframe
+     * always outweighs any difference in the lower ones.
+     */
+    static double combine(double daily, double weekly, double monthly) {
+        return safe(monthly) * MONTHLY_W + safe(weekly) * WEEKLY_W + safe(daily);
+    }
+
+    private double score(EtfHistory history, int last, int timeframe) {
+        return switch (timeframe) {
+            case DAILY -> mode == TvScoringMode.SERIES
+                    ? seriesOf(history).dailyScore(last)
+                    : rateIncrementally(history, last);
+            case WEEKLY -> memo.overallScore(history, TvResampler.PeriodType.WEEKLY, last);
+            case MONTHLY -> memo.overallScore(history, TvResampler.PeriodType.MONTHLY, last);
+            default -> throw new IllegalArgumentException("Not a timeframe: " + timeframe);
+        };
+    }
+
+    private TvScoreSeries seriesOf(EtfHistory history) {
+        TvScoreSeries s = series.get(history.getSymbol());
+        if (s != null && s.getHistory() == history) return s;
+        return series.compute(history.getSymbol(),
+                (symbol, old) -> old == null || old.getHistory() != history ? TvScoreSeries.computeDaily(history) : old);
+    }
+
+    private double rateIncrementally(EtfHistory history, int last) {
+        SymbolState state = states.get(history.getSymbol());
+        if (state == null || state.history != history) {
+            state = states.compute(history.getSymbol(),
+                    (symbol, old) -> old == null || old.history != history ? new SymbolState(history) : old);
+        }
+
+        synchronized (state) {
+            if (last < state.nextDaily - 1) {
+                state.reset();
+            }
+            state.advanceTo(last);
+            return state.daily.overallScore();
+        }
     }
 
     private static double safe(double v) {
         return Double.isNaN(v) ? 0.0 : v;
     }
+
+    private static final class SymbolState {
+        final EtfHistory history;
+        StreamingTvRater daily;
+        int nextDaily; // daily bars [0, nextDaily) have been pushed
+
+        SymbolState(EtfHistory history) {
+            this.history = history;
+            reset();
+        }
+
+        void reset() {
+            daily = new StreamingTvRater();
+            nextDaily = 0;
+        }
+
+        void advanceTo(int lastDaily) {
+            for (int i = nextDaily; i <= lastDaily; i++) {
+                daily.push(history.high(i), history.low(i), history.close(i), history.volume(i));
+            }
+            nextDaily = Math.max(nextDaily, lastDaily + 1);
+        }
+    }
 }
@@ -0,0 +1,202 @@
+package com.example.momentum;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * {@link IndicatorKernels} on the JDK Vector API (jdk.incubator.vector), using the widest
+ * double species of the CPU. Only compiled with the simd Maven profile, and the JVM must run with
+ * {@code --add-modules jdk.incubator.vector}; otherwise {@link IndicatorKernelSelector} stays on the
+ * scalar kernels.
+ *
+ * Each reduction keeps one accumulator per lane and finishes the remainder with scalar code, so
+ * sums are not added in exactly the scalar order.
+ */
+public final class VectorIndicatorKernels implements IndicatorKernels {
+
+    private static final VectorSpecies<Double> S = DoubleVector.SPECIES_PREFERRED;
+
+    // 1, 2, ..., lane count: weights of the first vector in rampDot
+    private static final double[] RAMP = new double[S.length()];
+
+    static {
+        for (int i = 0; i < RAMP.length; i++) RAMP[i] = i + 1;
+    }
+
+    public static final VectorIndicatorKernels INSTANCE = new VectorIndicatorKernels();
+
+    private VectorIndicatorKernels() {}
+
+    /** Number of doubles per vector. */
+    public static int lanes() {
+        return S.length();
+    }
+
+    @Override
+    public double sum(double[] v, int from, int to) {
+        int i = from;
+        int bound = from + S.loopBound(to - from);
+        DoubleVector acc = DoubleVector.zero(S);
+        for (; i < bound; i += S.length()) {
+            acc = acc.add(DoubleVector.fromArray(S, v, i));
+        }
+        double sum = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < to; i++) sum += v[i];
+        return sum;
+    }
+
+    @Override
+    public double dot(double[] a, double[] b, int from, int to) {
+        int i = from;
+        int bound = from + S.loopBound(to - from);
+        DoubleVector acc = DoubleVector.zero(S);
+        for (; i < bound; i += S.length()) {
+            acc = DoubleVector.fromArray(S, a, i).fma(DoubleVector.fromArray(S, b, i), acc);
+        }
+        double sum = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < to; i++) sum += a[i] * b[i];
+        return sum;
+    }
+
+    @Override
+    public double rampDot(double[] v, int from, int to) {
+        int i = from;
+        int bound = from + S.loopBound(to - from);
+        DoubleVector weights = DoubleVector.fromArray(S, RAMP, 0);
+        DoubleVector step = DoubleVector.broadcast(S, S.length());
+        DoubleVector acc = DoubleVector.zero(S);
+        for (; i < bound; i += S.length()) {
+            acc = DoubleVector.fromArray(S, v, i).fma(weights, acc);
+            weights = weights.add(step);
+        }
+        double sum = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < to; i++) sum += v[i] * (i - from + 1);
+        return sum;
+    }
+
+    @Override
+    public double max(double[] v, int from, int to) {
+        int i = from;
+        int bound = from + S.loopBound(to - from);
+        DoubleVector acc = DoubleVector.broadcast(S, Double.NEGATIVE_INFINITY);
+        for (; i < bound; i += S.length()) {
+            acc = acc.max(DoubleVector.fromArray(S, v, i));
+        }
+        double max = acc.reduceLanes(VectorOperators.MAX);
+        for (; i < to; i++) max = Math.max(max, v[i]);
+        return max;
+    }
+
+    @Override
+    public double min(double[] v, int from, int to) {
+        int i = from;
+        int bound = from + S.loopBound(to - from);
+        DoubleVector acc = DoubleVector.broadcast(S, Double.POSITIVE_INFINITY);
+        for (; i < bound; i += S.length()) {
+            acc = acc.min(DoubleVector.fromArray(S, v, i));
+        }
+        double min = acc.reduceLanes(VectorOperators.MIN);
+        for (; i < to; i++) min = Math.min(min, v[i]);
+        return min;
+    }
+
+    @Override
+    public double medianPriceSum(double[] high, double[] low, int from, int to) {
+        int i = from;
+        int bound = from + S.loopBound(to - from);
+        DoubleVector acc = DoubleVector.zero(S);
+        for (; i < bound; i += S.length()) {
+            acc = acc.add(DoubleVector.fromArray(S, high, i).add(DoubleVector.fromArray(S, low, i)).div(2.0));
+        }
+        double sum = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < to; i++) sum += (high[i] + low[i]) / 2.0;
+        return sum;
+    }
+
+    @Override
+    public double typicalPriceSum(double[] high, double[] low, double[] close, int from, int to) {
+        int i = from;
+        int bound = from + S.loopBound(to - from);
+        DoubleVector acc = DoubleVector.zero(S);
+        for (; i < bound; i += S.length()) {
+            acc = acc.add(typicalPrice(high, low, close, i));
+        }
+        double sum = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < to; i++) sum += (high[i] + low[i] + close[i]) / 3.0;
+        return sum;
+    }
+
+    @Override
+    public double typicalPriceAbsDeviationSum(double[] high, double[] low, double[] close, int from, int to, double mean) {
+        int i = from;
+        int bound = from + S.loopBound(to - from);
+        DoubleVector acc = DoubleVector.zero(S);
+        for (; i < bound; i += S.length()) {
+            acc = acc.add(typicalPrice(high, low, close, i).sub(mean).abs());
+        }
+        double sum = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < to; i++) sum += Math.abs((high[i] + low[i] + close[i]) / 3.0 - mean);
+        return sum;
+    }
+
+    private static DoubleVector typicalPrice(double[] high, double[] low, double[] close, int i) {
+        return DoubleVector.fromArray(S, high, i)
+                .add(DoubleVector.fromArray(S, low, i))
+                .add(DoubleVector.fromArray(S, close, i))
+                .div(3.0);
+    }
+
+    @Override
+    public double trueRangeSum(double[] high, double[] low, double[] close, int from, int to) {
+        int i = from;
+        int bound = from + S.loopBound(to - from);
+        DoubleVector acc = DoubleVector.zero(S);
+        for (; i < bound; i += S.length()) {
+            DoubleVector h = DoubleVector.fromArray(S, high, i);
+            DoubleVector l = DoubleVector.fromArray(S, low, i);
+            DoubleVector prevClose = DoubleVector.fromArray(S, close, i - 1);
+            DoubleVector tr = h.sub(l).max(h.sub(prevClose).abs().max(l.sub(prevClose).abs()));
+            acc = acc.add(tr);
+        }
+        double sum = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < to; i++) {
+            double prevClose = close[i - 1];
+            sum += Math.max(high[i] - low[i], Math.max(Math.abs(high[i] - prevClose), Math.abs(low[i] - prevClose)));
+        }
+        return sum;
+    }
+
+    @Override
+    public double buyingPressureSum(double[] low, double[] close, int from, int to) {
+        int i = from;
+        int bound = from + S.loopBound(to - from);
+        DoubleVector acc = DoubleVector.zero(S);
+        for (; i < bound; i += S.length()) {
+            DoubleVector prevClose = DoubleVector.fromArray(S, close, i - 1);
+            acc = acc.add(DoubleVector.fromArray(S, close, i).sub(DoubleVector.fromArray(S, low, i).min(prevClose)));
+        }
+        double sum = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < to; i++) sum += close[i] - Math.min(low[i], close[i - 1]);
+        return sum;
+    }
+
+    @Override
+    public double trueRangeFromPrevCloseSum(double[] high, double[] low, double[] close, int from, int to) {
+        int i = from;
+        int bound = from + S.loopBound(to - from);
+        DoubleVector acc = DoubleVector.zero(S);
+        for (; i < bound; i += S.length()) {
+            DoubleVector prevClose = DoubleVector.fromArray(S, close, i - 1);
+            DoubleVector range = DoubleVector.fromArray(S, high, i).max(prevClose)
+                    .sub(DoubleVector.fromArray(S, low, i).min(prevClose));
+            acc = acc.add(range);
+        }
+        double sum = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < to; i++) {
+            double prevClose = close[i - 1];
+            sum += Math.max(high[i], prevClose) - Math.min(low[i], prevClose);
+        }
+        return sum;
+    }
+}
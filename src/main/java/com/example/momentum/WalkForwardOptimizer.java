@@ -0,0 +1,118 @@
+package com.example.momentum;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Walk-forward optimization: for each fold, picks the config with the best in-sample CAGR over the
+ * previous {@code inSampleYears} and trades it for the next {@code outOfSampleMonths} (windows are
+ * counted in monthly rebalance dates). The
+ * out-of-sample segments follow each other without gaps and are stitched into one equity curve,
+ * each segment starting with the final equity of the one before.
+ *
+ * All folds run on one {@link ParameterSweep}, so every score mode and lookback set is scored once
+ * over the whole history and overlapping in-sample windows reuse those scores.
+ */
+public final class WalkForwardOptimizer {
+
+    public static final Path DEFAULT_FOLDS_CSV = Path.of("output", "walk-forward.csv");
+
+    /**
+     * @param inSample     result of {@code chosen} over the in-sample window
+     * @param outOfSample  result of {@code chosen} over the out-of-sample window
+     */
+    public record Fold(LocalDate inSampleStart,
+                       LocalDate outOfSampleStart,
+                       LocalDate outOfSampleEnd,
+                       BacktestConfig chosen,
+                       BacktestResult inSample,
+                       BacktestResult outOfSample) {}
+
+    private final ParameterSweep sweep;
+    private final int inSampleYears;
+    private final int outOfSampleMonths;
+
+    public WalkForwardOptimizer(ParameterSweep sweep, int inSampleYears, int outOfSampleMonths) {
+        if (inSampleYears < 1 || outOfSampleMonths < 1) {
+            throw new IllegalArgumentException("Walk-forward windows must be positive: in-sample " + inSampleYears
+                    + " years, out-of-sample " + outOfSampleMonths + " months");
+        }
+        this.sweep = sweep;
+        this.inSampleYears = inSampleYears;
+        this.outOfSampleMonths = outOfSampleMonths;
+    }
+
+    /**
+     * Runs all folds that fit in the history; the last out-of-sample window may be shorter.
+     */
+    public List<Fold> run(List<BacktestConfig> configs, double initialCapital) {
+        List<LocalDate> dates = sweep.getRebalanceDates();
+        List<Fold> folds = new ArrayList<>();
+        if (dates.size() < 2 || configs.isEmpty()) return folds;
+
+        // rebalance dates are month ends, so windows are counted in rebalance dates
+        int inSampleMonths = inSampleYears * 12;
+        double equity = initialCapital;
+        for (int oosStart = inSampleMonths; oosStart < dates.size() - 1; oosStart += outOfSampleMonths) {
+            int oosEnd = Math.min(oosStart + outOfSampleMonths, dates.size() - 1);
+            LocalDate isFrom = dates.get(oosStart - inSampleMonths);
+            LocalDate oosFrom = dates.get(oosStart);
+            LocalDate oosTo = dates.get(oosEnd);
+
+            Map.Entry<BacktestConfig, BacktestResult> best =
+                    sweep.run(configs, isFrom, oosFrom).entrySet().iterator().next();
+            BacktestResult oos = sweep.simulate(best.getKey(), equity, oosFrom, oosTo);
+            equity = oos.finalEquity(equity);
+
+            folds.add(new Fold(isFrom, oosFrom, oosTo, best.getKey(), best.getValue(), oos));
+            System.out.printf(Locale.US, "Fold %d: in-sample %s..%s -> %s | OOS %s..%s CAGR=%.2f%% maxDD=%.2f%% | equity=%.2f%n",
+                    folds.size(), isFrom, oosFrom, best.getKey(), oosFrom, oosTo,
+                    oos.cagr() * 100.0, oos.maxDrawdown() * 100.0, equity);
+        }
+        return folds;
+    }
+
+    /**
+     * The out-of-sample segments of {@code folds} as one curve.
+     */
+    public static EquityCurve stitch(List<Fold> folds) {
+        List<LocalDate> dates = new ArrayList<>();
+        List<Double> equity = new ArrayList<>();
+        for (Fold fold : folds) {
+            dates.addAll(fold.outOfSample().curve().dates());
+            equity.addAll(fold.outOfSample().curve().equity());
+        }
+        return new EquityCurve(dates, equity);
+    }
+
+    /**
+     * Writes one line per fold: windows, chosen parameters, in-sample and out-of-sample statistics.
+     */
+    public static void writeCsv(List<Fold> folds, Path path) {
+        StringBuilder sb = new StringBuilder("fold,inSampleStart,outOfSampleStart,outOfSampleEnd,scoreMode,lookbackDays,"
+                + "rotationSpeed,topN,maPeriod,keepMultiplier,inSampleCagr,outOfSampleCagr,outOfSampleMaxDrawdown,"
+                + "outOfSampleAnnualTurnover\n");
+        int n = 1;
+        for (Fold f : folds) {
+            BacktestConfig c = f.chosen();
+            sb.append(String.format(Locale.US, "%d,%s,%s,%s,%s,%s,%s,%d,%d,%s,%.6f,%.6f,%.6f,%.4f%n",
+                    n++, f.inSampleStart(), f.outOfSampleStart(), f.outOfSampleEnd(), c.scoreMode(), c.lookbacksLabel(),
+                    c.rotationSpeed(), c.topN(), c.maPeriod(),
+                    c.rotationSpeed() == RotationSpeed.SLOW ? String.valueOf(c.slowKeepRankMultiplier()) : "",
+                    f.inSample().cagr(), f.outOfSample().cagr(), f.outOfSample().maxDrawdown(),
+                    f.outOfSample().annualTurnover()));
+        }
+        try {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            Files.writeString(path, sb);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write walk-forward folds to " + path, e);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.momentum;
+
+/**
+ * Running close totals over the bars of one history, so any window sum of closes (e.g. an SMA) is
+ * a couple of additions instead of a loop over the window.
+ *
+ * Totals restart every {@value #BLOCK} bars, so their rounding error stays at the scale of one
+ * block instead of growing with the whole history. A window sum can still differ from a direct
+ * left-to-right sum in the last bit. Built once per set of columns (see
+ * {@link EtfHistory#windowSums()}) and shared by all views on them; ranges are half-open
+ * [from, to) in bar indices of the history it was obtained from.
+ *
+ * Only the close SMA (the benchmark risk-on check) reads these totals. The TV window indicators
+ * keep summing their windows in {@link StreamingTvRater}, where the votes must equal the original
+ * left-to-right sums exactly.
+ */
+public final class WindowSums {
+
+    private static final int BLOCK = 256;
+
+    private final double[] close;      // element k holds the total over bars [k - k % BLOCK, k) of the columns
+    private final double[] blockClose; // element b holds the total over the full block b
+    private final int offset;          // column index of bar 0
+
+    WindowSums(double[] closeColumn) {
+        int n = closeColumn.length;
+        close = new double[n + 1];
+        blockClose = new double[n / BLOCK];
+        for (int i = 0; i < n; i++) {
+            double total = close[i] + closeColumn[i];
+            if ((i + 1) % BLOCK == 0) {
+                blockClose[i / BLOCK] = total;
+            } else {
+                close[i + 1] = total;
+            }
+        }
+        offset = 0;
+    }
+
+    private WindowSums(WindowSums columns, int offset) {
+        this.close = columns.close;
+        this.blockClose = columns.blockClose;
+        this.offset = offset;
+    }
+
+    /**
+     * Same sums, with bar 0 at column index {@code offset}. No data is copied.
+     */
+    WindowSums view(int offset) {
+        return offset == this.offset ? this : new WindowSums(this, offset);
+    }
+
+    public double closeSum(int from, int to) {
+        int f = offset + from;
+        int t = offset + to;
+        int fromBlock = f / BLOCK;
+        int toBlock = t / BLOCK;
+        if (fromBlock == toBlock) {
+            return close[t] - close[f];
+        }
+        double sum = blockClose[fromBlock] - close[f];
+        for (int b = fromBlock + 1; b < toBlock; b++) {
+            sum += blockClose[b];
+        }
+        return sum + close[t];
+    }
+}
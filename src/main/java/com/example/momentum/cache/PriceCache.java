@@ -0,0 +1,191 @@
+package com.example.momentum.cache;
+
+import com.example.momentum.EtfHistory;
+import com.example.momentum.TvResampler;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.Optional;
+
+/**
+ * Local on-disk cache of daily price histories, one binary file per symbol.
+ *
+ * File layout (little endian):
+ *  - header: int magic, int version, int barCount, int startEpochDay (lower date bound the bars were loaded with)
+ *  - int[barCount] epoch days, padded to a multiple of 8 bytes
+ *  - double[barCount] columns for open, high, low, close and volume, one after the other
+ *
+ * Weekly/monthly bars aggregated from the daily bars can be stored next to them (see
+ * {@link #readResampled}); they are deleted whenever the daily bars of the symbol are rewritten,
+ * so they never outlive the data they were built from.
+ *
+ * Files are read through memory-mapped {@link FileChannel}s, so several JVMs on the same machine
+ * share the OS page cache. The mapping only serves the I/O: each read copies the columns into
+ * heap arrays of a new {@link EtfHistory}, so a read costs about as much as a plain file read
+ * and the histories do not stay backed by the file. Writes go to a temporary file that is
+ * atomically moved into place, so a reader never sees a half-written file.
+ */
+public class PriceCache {
+
+    public static final Path DEFAULT_DIRECTORY = Path.of("cache/prices");
+
+    private static final int MAGIC = 0x3143504D; // "MPC1"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 16;
+    private static final int NO_START = Integer.MIN_VALUE;
+
+    private final Path directory;
+
+    public PriceCache(Path directory) {
+        this.directory = directory;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Returns the cached history of {@code symbol} from {@code startDateInclusive} on, or empty if
+     * the symbol is not cached or was cached with a later start date.
+     */
+    public Optional<EtfHistory> read(String symbol, LocalDate startDateInclusive) throws IOException {
+        return readFile(symbol, fileFor(symbol, ""), startDateInclusive, false);
+    }
+
+    /**
+     * Cached weekly/monthly bars of {@code symbol}, empty if absent, invalidated, or aggregated
+     * with another start date (the first period would differ).
+     */
+    public Optional<EtfHistory> readResampled(String symbol, TvResampler.PeriodType type, LocalDate startDateInclusive) throws IOException {
+        return readFile(symbol, fileFor(symbol, suffix(type)), startDateInclusive, true);
+    }
+
+    private Optional<EtfHistory> readFile(String symbol, Path file, LocalDate startDateInclusive,
+                                          boolean exactStart) throws IOException {
+        MappedByteBuffer buf;
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        }
+        buf.order(ByteOrder.LITTLE_ENDIAN);
+
+        if (buf.capacity() < HEADER_BYTES || buf.getInt(0) != MAGIC) {
+            throw new IOException("Not a price cache file: " + file);
+        }
+        if (buf.getInt(4) != VERSION) {
+            return Optional.empty(); // written by another format version, reload it
+        }
+        int n = buf.getInt(8);
+        int cachedStart = buf.getInt(12);
+        if (startDateInclusive != null && cachedStart != NO_START && startDateInclusive.toEpochDay() < cachedStart) {
+            return Optional.empty();
+        }
+        if (startDateInclusive == null && cachedStart != NO_START) {
+            return Optional.empty();
+        }
+        if (exactStart && cachedStart != (startDateInclusive == null ? NO_START : startDateInclusive.toEpochDay())) {
+            return Optional.empty();
+        }
+        if (buf.capacity() < fileSize(n)) {
+            throw new IOException("Truncated price cache file: " + file);
+        }
+
+        int[] days = new int[n];
+        double[] open = new double[n];
+        double[] high = new double[n];
+        double[] low = new double[n];
+        double[] close = new double[n];
+        double[] volume = new double[n];
+
+        // Bulk copies out of the mapping; EtfHistory keeps plain arrays
+        buf.position(HEADER_BYTES);
+        buf.asIntBuffer().get(days);
+        int pos = doublesOffset(n);
+        for (double[] column : new double[][] {open, high, low, close, volume}) {
+            buf.position(pos);
+            buf.asDoubleBuffer().get(column);
+            pos += n * Double.BYTES;
+        }
+
+        EtfHistory history = EtfHistory.ofColumns(symbol, days, open, high, low, close, volume);
+        return Optional.of(startDateInclusive == null ? history : history.from(startDateInclusive));
+    }
+
+    /**
+     * Stores {@code history}, replacing any previous entry for its symbol.
+     *
+     * @param startDateInclusive the lower date bound the history was loaded with (null = full history)
+     */
+    public void write(EtfHistory history, LocalDate startDateInclusive) throws IOException {
+        writeFile(history, fileFor(history.getSymbol(), ""), startDateInclusive);
+        for (TvResampler.PeriodType type : TvResampler.PeriodType.values()) {
+            Files.deleteIfExists(fileFor(history.getSymbol(), suffix(type)));
+        }
+    }
+
+    /**
+     * Stores weekly/monthly bars of a symbol; must be written after the daily bars they were built from.
+     */
+    public void writeResampled(EtfHistory bars, TvResampler.PeriodType type, LocalDate startDateInclusive) throws IOException {
+        writeFile(bars, fileFor(bars.getSymbol(), suffix(type)), startDateInclusive);
+    }
+
+    private void writeFile(EtfHistory history, Path target, LocalDate startDateInclusive) throws IOException {
+        int n = history.size();
+        ByteBuffer buf = ByteBuffer.allocate(fileSize(n)).order(ByteOrder.LITTLE_ENDIAN);
+        buf.putInt(MAGIC);
+        buf.putInt(VERSION);
+        buf.putInt(n);
+        buf.putInt(startDateInclusive == null ? NO_START : (int) startDateInclusive.toEpochDay());
+        for (int i = 0; i < n; i++) buf.putInt(history.epochDay(i));
+        buf.position(doublesOffset(n));
+        for (int i = 0; i < n; i++) buf.putDouble(history.open(i));
+        for (int i = 0; i < n; i++) buf.putDouble(history.high(i));
+        for (int i = 0; i < n; i++) buf.putDouble(history.low(i));
+        for (int i = 0; i < n; i++) buf.putDouble(history.close(i));
+        for (int i = 0; i < n; i++) buf.putDouble(history.volume(i));
+        buf.flip();
+
+        Files.createDirectories(directory);
+        Path tmp = Files.createTempFile(directory, target.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+                while (buf.hasRemaining()) {
+                    ch.write(buf);
+                }
+            }
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private Path fileFor(String symbol, String suffix) {
+        // Keep file names portable: tickers like BRK/B or ^GSPC become BRK_B / _GSPC
+        String safe = symbol.replaceAll("[^A-Za-z0-9._-]", "_");
+        return directory.resolve(safe + suffix + ".bin");
+    }
+
+    private static String suffix(TvResampler.PeriodType type) {
+        return type == TvResampler.PeriodType.WEEKLY ? ".weekly" : ".monthly";
+    }
+
+    private static int doublesOffset(int n) {
+        int daysEnd = HEADER_BYTES + n * Integer.BYTES;
+        return (daysEnd + 7) & ~7;
+    }
+
+    private static int fileSize(int n) {
+        return doublesOffset(n) + 5 * n * Double.BYTES;
+    }
+}
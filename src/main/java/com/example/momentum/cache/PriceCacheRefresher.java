@@ -0,0 +1,134 @@
+package com.example.momentum.cache;
+
+import com.example.momentum.EtfHistory;
+import com.example.momentum.db.ChartingDbClient;
+import com.example.momentum.db.HistoryLoader;
+import com.example.momentum.db.PriceWatermark;
+
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Brings the local {@link PriceCache} up to date with stock_prices using per-symbol watermarks.
+ *
+ * One query fetches last date / row count / close checksum for all symbols. Then for each symbol:
+ *  - not cached: full load
+ *  - cached and DB has nothing newer than the cached last date: reuse as-is
+ *  - DB has newer bars: fetch only those and append them
+ * If, after appending, row count or checksum still disagree with the DB, the symbol's history was
+ * restated (back-filled, corrected, deleted bars) and it is reloaded in full.
+ */
+public class PriceCacheRefresher {
+
+    // Relative tolerance for the close checksum; the DB may sum in another order/precision.
+    private static final double CHECKSUM_TOLERANCE = 1e-9;
+
+    private final PriceCache cache;
+
+    public PriceCacheRefresher(PriceCache cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * Refreshes the cache for {@code symbols} and returns their current histories.
+     * Symbols without any rows in the DB are skipped with a warning.
+     *
+     * @param db     connection used for the watermark query
+     * @param loader loader used for appended and reloaded bars
+     */
+    public Map<String, EtfHistory> refresh(ChartingDbClient db, HistoryLoader loader,
+                                           Collection<String> symbols, LocalDate startDate) throws Exception {
+        Map<String, PriceWatermark> watermarks = db.loadWatermarks(symbols, startDate);
+
+        Map<String, EtfHistory> result = new HashMap<>();
+        Map<String, EtfHistory> stale = new HashMap<>();   // cached, DB has newer bars
+        List<String> reload = new ArrayList<>();
+
+        for (String s : symbols) {
+            PriceWatermark wm = watermarks.get(s);
+            if (wm == null) {
+                System.out.println("WARN: No price history found in DB for symbol " + s + " (skipping)");
+                continue;
+            }
+            EtfHistory cached = readCached(s, startDate);
+            if (cached == null || cached.isEmpty()) {
+                reload.add(s);
+            } else if (wm.lastDate().isAfter(cached.getLastDate())) {
+                stale.put(s, cached);
+            } else if (matches(cached, wm)) {
+                result.put(s, cached);
+            } else {
+                reload.add(s);
+            }
+        }
+        int unchanged = result.size();
+
+        // One query for all appends, starting after the oldest watermark; each symbol keeps only its own new bars.
+        int appended = 0;
+        if (!stale.isEmpty()) {
+            LocalDate oldest = stale.values().stream().map(EtfHistory::getLastDate).min(LocalDate::compareTo).orElseThrow();
+            Map<String, EtfHistory> deltas = loader.loadAll(stale.keySet(), oldest.plusDays(1));
+            for (Map.Entry<String, EtfHistory> e : stale.entrySet()) {
+                String s = e.getKey();
+                EtfHistory cached = e.getValue();
+                EtfHistory delta = deltas.get(s);
+                EtfHistory merged = delta == null ? null : append(cached, delta.from(cached.getLastDate().plusDays(1)));
+                if (merged != null && matches(merged, watermarks.get(s))) {
+                    result.put(s, merged);
+                    writeCached(merged, startDate);
+                    appended++;
+                } else {
+                    reload.add(s);
+                }
+            }
+        }
+
+        Map<String, EtfHistory> reloaded = loader.loadAll(reload, startDate);
+        for (EtfHistory h : reloaded.values()) {
+            result.put(h.getSymbol(), h);
+            writeCached(h, startDate);
+        }
+
+        System.out.println("Price cache refresh: " + unchanged + " unchanged, " + appended + " appended, "
+                + reloaded.size() + " fully loaded");
+        return result;
+    }
+
+    private EtfHistory readCached(String symbol, LocalDate startDate) {
+        try {
+            return cache.read(symbol, startDate).orElse(null);
+        } catch (Exception e) {
+            System.out.println("WARN: Ignoring unreadable price cache entry for " + symbol + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private void writeCached(EtfHistory history, LocalDate startDate) {
+        try {
+            cache.write(history, startDate);
+        } catch (Exception e) {
+            System.out.println("WARN: Could not write price cache entry for " + history.getSymbol() + ": " + e.getMessage());
+        }
+    }
+
+    private static boolean matches(EtfHistory history, PriceWatermark wm) {
+        if (history.size() != wm.rowCount()) return false;
+        if (!history.getLastDate().equals(wm.lastDate())) return false;
+
+        double sum = 0.0;
+        for (int i = 0; i < history.size(); i++) {
+            sum += history.close(i);
+        }
+        return Math.abs(sum - wm.closeSum()) <= CHECKSUM_TOLERANCE * Math.max(1.0, Math.abs(wm.closeSum()));
+    }
+
+    private static EtfHistory append(EtfHistory head, EtfHistory tail) {
+        EtfHistory.Builder merged = new EtfHistory.Builder(head.getSymbol(), head.size() + tail.size());
+        for (EtfHistory part : List.of(head, tail)) {
+            for (int i = 0; i < part.size(); i++) {
+                merged.add(part.epochDay(i), part.open(i), part.high(i), part.low(i), part.close(i), part.volume(i));
+            }
+        }
+        return merged.build();
+    }
+}
@@ -1,19 +1,30 @@
 package com.example.momentum.db;
 
 import com.example.momentum.EtfHistory;
-import com.example.momentum.PriceBar;
+import com.example.momentum.TvResampler;
 
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyInputStream;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Array;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * Minimal JDBC client to read symbols (from quotes) and daily price bars (from stock_prices)
@@ -21,6 +32,9 @@ import java.util.Set;
  */
 public class ChartingDbClient implements AutoCloseable {
 
+    // Rows per round trip when streaming large results through a cursor
+    private static final int FETCH_SIZE = 10_000;
+
     private final Connection connection;
     private final StockPricesSchema stockPricesSchema;
 
@@ -48,47 +62,333 @@ public class ChartingDbClient implements AutoCloseable {
     }
 
     public EtfHistory loadHistory(String symbol, LocalDate startDateInclusive) throws SQLException {
+        String sql = barsSelect(false) +
+                " where " + stockPricesSchema.symbolColumn() + " = ?" +
+                (startDateInclusive != null ? (" and " + stockPricesSchema.dateColumn() + " >= ?") : "") +
+                " order by " + stockPricesSchema.dateColumn();
+
+        EtfHistory.Builder bars = new EtfHistory.Builder(symbol);
+        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+            ps.setString(1, symbol);
+            if (startDateInclusive != null) {
+                ps.setObject(2, startDateInclusive);
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    addBar(bars, rs);
+                }
+            }
+        }
+        return bars.build();
+    }
+
+    /**
+     * Loads the histories of many symbols in a single query ({@code symbol = any(?)}).
+     *
+     * Rows are streamed through a server-side cursor (autocommit off + fetch size), so the driver
+     * only buffers {@link #FETCH_SIZE} rows at a time, and are written straight into per-symbol
+     * columns. Symbols without rows are absent from the result.
+     */
+    public Map<String, EtfHistory> loadHistories(Collection<String> symbols, LocalDate startDateInclusive) throws SQLException {
+        Map<String, EtfHistory> result = new HashMap<>();
+        if (symbols.isEmpty()) {
+            return result;
+        }
+
+        String symCol = stockPricesSchema.symbolColumn();
+        String dateCol = stockPricesSchema.dateColumn();
+        String sql = barsSelect(true) +
+                " where " + symCol + " = any(?)" +
+                (startDateInclusive != null ? (" and " + dateCol + " >= ?") : "") +
+                " order by " + symCol + ", " + dateCol;
+
+        boolean autoCommit = connection.getAutoCommit();
+        Array symbolArray = connection.createArrayOf("text", symbols.toArray());
+        try {
+            // pgjdbc only uses a cursor (instead of reading the whole result) outside autocommit
+            connection.setAutoCommit(false);
+            try (PreparedStatement ps = connection.prepareStatement(sql)) {
+                ps.setFetchSize(FETCH_SIZE);
+                ps.setArray(1, symbolArray);
+                if (startDateInclusive != null) {
+                    ps.setObject(2, startDateInclusive);
+                }
+                try (ResultSet rs = ps.executeQuery()) {
+                    EtfHistory.Builder current = null;
+                    while (rs.next()) {
+                        String sym = rs.getString("s");
+                        if (sym == null) continue;
+                        if (current == null || !current.symbol().equals(sym)) {
+                            if (current != null) result.put(current.symbol(), current.build());
+                            current = new EtfHistory.Builder(sym, 4096);
+                        }
+                        addBar(current, rs);
+                    }
+                    if (current != null) result.put(current.symbol(), current.build());
+                }
+            }
+            connection.commit();
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+            symbolArray.free();
+        }
+        return result;
+    }
+
+    /**
+     * Loads weekly or monthly OHLCV bars aggregated in the DB: first open, max high, min low,
+     * last close and summed volume per ISO week / calendar month, each bar dated on the last
+     * trading day of its period (the same bars {@link TvResampler} builds from daily data).
+     * Symbols without rows are absent from the result.
+     */
+    public Map<String, EtfHistory> loadResampledHistories(Collection<String> symbols,
+                                                          LocalDate startDateInclusive,
+                                                          TvResampler.PeriodType type) throws SQLException {
+        Map<String, EtfHistory> result = new HashMap<>();
+        if (symbols.isEmpty()) {
+            return result;
+        }
+
+        String symCol = stockPricesSchema.symbolColumn();
+        String dateCol = stockPricesSchema.dateColumn();
+        String volumeCol = stockPricesSchema.volumeColumn();
+        String unit = type == TvResampler.PeriodType.WEEKLY ? "week" : "month"; // date_trunc weeks start on Monday (ISO)
+
+        String sql = "select " + symCol + " as s, max(" + dateCol + ") as d," +
+                " (array_agg(" + stockPricesSchema.openColumn() + " order by " + dateCol + "))[1] as o," +
+                " max(" + stockPricesSchema.highColumn() + ") as h," +
+                " min(" + stockPricesSchema.lowColumn() + ") as l," +
+                " (array_agg(" + stockPricesSchema.closeColumn() + " order by " + dateCol + " desc))[1] as c," +
+                " " + (volumeCol == null ? "0" : "sum(" + volumeCol + ")::float8") + " as volume" +
+                " from " + stockPricesSchema.tableName() +
+                " where " + symCol + " = any(?)" +
+                (startDateInclusive != null ? (" and " + dateCol + " >= ?") : "") +
+                " group by " + symCol + ", date_trunc('" + unit + "', " + dateCol + ")" +
+                " order by 1, 2";
+
+        Array symbolArray = connection.createArrayOf("text", symbols.toArray());
+        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+            ps.setArray(1, symbolArray);
+            if (startDateInclusive != null) {
+                ps.setObject(2, startDateInclusive);
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                EtfHistory.Builder current = null;
+                while (rs.next()) {
+                    String sym = rs.getString("s");
+                    if (sym == null) continue;
+                    if (current == null || !current.symbol().equals(sym)) {
+                        if (current != null) result.put(current.symbol(), current.build());
+                        current = new EtfHistory.Builder(sym);
+                    }
+                    addBar(current, rs);
+                }
+                if (current != null) result.put(current.symbol(), current.build());
+            }
+        } finally {
+            symbolArray.free();
+        }
+        return result;
+    }
+
+    /**
+     * Loads only the closes that the return-based score modes need at month-end rebalances.
+     *
+     * Rebalance dates are the month-end trading days of {@code benchmarkSymbol} (picked in SQL with
+     * a row_number() window per month). For every symbol, rebalance date t and lookback lb the DB
+     * returns the last bar on or before t and on or before t - lb calendar days - exactly the bars
+     * {@code getCloseOnOrBefore} would hit in the full daily history. That is a few rows per symbol
+     * and month instead of ~21 daily bars.
+     *
+     * The returned histories are {@linkplain EtfHistory#isSampled() sampled}: open/high/low equal the
+     * close and volume is 0. Symbols without rows are absent from the result.
+     */
+    public Map<String, EtfHistory> loadMonthEndSamples(Collection<String> symbols,
+                                                       LocalDate startDateInclusive,
+                                                       String benchmarkSymbol,
+                                                       int[] lookbackDays) throws SQLException {
+        Map<String, EtfHistory> result = new HashMap<>();
+        if (symbols.isEmpty()) {
+            return result;
+        }
+
+        String table = stockPricesSchema.tableName();
         String symCol = stockPricesSchema.symbolColumn();
         String dateCol = stockPricesSchema.dateColumn();
-        String openCol = stockPricesSchema.openColumn();
-        String highCol = stockPricesSchema.highColumn();
-        String lowCol = stockPricesSchema.lowColumn();
         String closeCol = stockPricesSchema.closeColumn();
+
+        String sql = "with month_ends as (" +
+                "  select d from (" +
+                "    select " + dateCol + " as d," +
+                "           row_number() over (partition by date_trunc('month', " + dateCol + ") order by " + dateCol + " desc) as rn" +
+                "    from " + table + " where " + symCol + " = ? and " + dateCol + " >= ?" +
+                "  ) m where rn = 1" +
+                "), targets as (" +
+                "  select d as t from month_ends" +
+                "  union" +
+                "  select d - lb from month_ends cross join unnest(?::int[]) as lb" +
+                ")" +
+                " select distinct u.sym as s, p.d, p.c" +
+                " from unnest(?::text[]) as u(sym)" +
+                " cross join targets" +
+                " cross join lateral (" +
+                "   select " + dateCol + " as d, " + closeCol + " as c from " + table +
+                "   where " + symCol + " = u.sym and " + dateCol + " <= targets.t and " + dateCol + " >= ?" +
+                "   order by " + dateCol + " desc limit 1" +
+                " ) p" +
+                " order by 1, 2";
+
+        Integer[] lookbacks = new Integer[lookbackDays.length];
+        for (int i = 0; i < lookbackDays.length; i++) lookbacks[i] = lookbackDays[i];
+
+        Array lookbackArray = connection.createArrayOf("integer", lookbacks);
+        Array symbolArray = connection.createArrayOf("text", symbols.toArray());
+        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+            ps.setString(1, benchmarkSymbol);
+            ps.setObject(2, startDateInclusive);
+            ps.setArray(3, lookbackArray);
+            ps.setArray(4, symbolArray);
+            ps.setObject(5, startDateInclusive);
+            try (ResultSet rs = ps.executeQuery()) {
+                EtfHistory.Builder current = null;
+                while (rs.next()) {
+                    String sym = rs.getString("s");
+                    LocalDate d = rs.getObject("d", LocalDate.class);
+                    if (sym == null || d == null) continue;
+                    if (current == null || !current.symbol().equals(sym)) {
+                        if (current != null) result.put(current.symbol(), current.build().asSampled());
+                        current = new EtfHistory.Builder(sym);
+                    }
+                    double c = rs.getDouble("c");
+                    current.add((int) d.toEpochDay(), c, c, c, c, 0.0);
+                }
+                if (current != null) result.put(current.symbol(), current.build().asSampled());
+            }
+        } finally {
+            lookbackArray.free();
+            symbolArray.free();
+        }
+        return result;
+    }
+
+    /**
+     * Same result as {@link #loadHistories}, but transferred with {@code COPY ... TO STDOUT (FORMAT binary)}
+     * and decoded directly into columns, skipping the per-row, per-column JDBC decoding. Meant for
+     * large cold loads.
+     *
+     * @param symbols symbols to load, or null to copy every symbol in stock_prices (full snapshot)
+     */
+    public Map<String, EtfHistory> copyHistories(Collection<String> symbols, LocalDate startDateInclusive) throws SQLException {
+        if (symbols != null && symbols.isEmpty()) {
+            return new HashMap<>();
+        }
+
+        String symCol = stockPricesSchema.symbolColumn();
+        String dateCol = stockPricesSchema.dateColumn();
         String volumeCol = stockPricesSchema.volumeColumn();
 
+        // COPY takes no bind parameters, so the filter values are inlined as escaped literals
+        List<String> filters = new ArrayList<>();
+        if (symbols != null) {
+            filters.add(symCol + " = any(array[" +
+                    symbols.stream().map(ChartingDbClient::sqlLiteral).collect(Collectors.joining(",")) +
+                    "]::text[])");
+        }
+        if (startDateInclusive != null) {
+            filters.add(dateCol + " >= date " + sqlLiteral(startDateInclusive.toString()));
+        }
+
+        String query = "select " + symCol + "::text, " +
+                dateCol + "::date, " +
+                stockPricesSchema.openColumn() + "::float8, " +
+                stockPricesSchema.highColumn() + "::float8, " +
+                stockPricesSchema.lowColumn() + "::float8, " +
+                stockPricesSchema.closeColumn() + "::float8, " +
+                (volumeCol == null ? "0" : volumeCol) + "::float8" +
+                " from " + stockPricesSchema.tableName() +
+                (filters.isEmpty() ? "" : " where " + String.join(" and ", filters)) +
+                " order by " + symCol + ", " + dateCol;
+        String sql = "copy (" + query + ") to stdout (format binary)";
+
+        PGConnection pg = connection.unwrap(PGConnection.class);
+        try (InputStream in = new BufferedInputStream(new PGCopyInputStream(pg, sql), 1 << 16)) {
+            return PgBinaryCopyDecoder.decode(in);
+        } catch (IOException e) {
+            throw new SQLException("Failed to read binary COPY from " + stockPricesSchema.tableName(), e);
+        }
+    }
+
+    private static String sqlLiteral(String value) {
+        return "'" + value.replace("'", "''") + "'";
+    }
+
+    /**
+     * "select [s,] d, o, h, l, c, volume from stock_prices" for the detected column names.
+     */
+    private String barsSelect(boolean withSymbol) {
+        String volumeCol = stockPricesSchema.volumeColumn();
         String volumeSelect = (volumeCol == null) ? "0 as volume" : volumeCol + " as volume";
 
-        String sql = "select " + dateCol + " as d, " +
-                openCol + " as o, " +
-                highCol + " as h, " +
-                lowCol + " as l, " +
-                closeCol + " as c, " +
+        return "select " +
+                (withSymbol ? stockPricesSchema.symbolColumn() + " as s, " : "") +
+                stockPricesSchema.dateColumn() + " as d, " +
+                stockPricesSchema.openColumn() + " as o, " +
+                stockPricesSchema.highColumn() + " as h, " +
+                stockPricesSchema.lowColumn() + " as l, " +
+                stockPricesSchema.closeColumn() + " as c, " +
                 volumeSelect +
+                " from " + stockPricesSchema.tableName();
+    }
+
+    private static void addBar(EtfHistory.Builder bars, ResultSet rs) throws SQLException {
+        LocalDate d = rs.getObject("d", LocalDate.class);
+        if (d == null) return;
+        double o = rs.getDouble("o");
+        double h = rs.getDouble("h");
+        double l = rs.getDouble("l");
+        double c = rs.getDouble("c");
+        double v = rs.getDouble("volume");
+        bars.add((int) d.toEpochDay(), o, h, l, c, v);
+    }
+
+    /**
+     * Returns last date, row count and close checksum of every requested symbol in one query.
+     * Symbols without rows (on or after the start date) are absent from the result.
+     */
+    public Map<String, PriceWatermark> loadWatermarks(Collection<String> symbols, LocalDate startDateInclusive) throws SQLException {
+        String symCol = stockPricesSchema.symbolColumn();
+        String dateCol = stockPricesSchema.dateColumn();
+
+        // Sum in float8 like the cache does: a sum over a real column would itself be a real
+        String sql = "select " + symCol + " as s, max(" + dateCol + ") as d, count(*) as n, " +
+                "sum(" + stockPricesSchema.closeColumn() + "::float8) as c" +
                 " from " + stockPricesSchema.tableName() +
-                " where " + symCol + " = ?" +
+                " where " + symCol + " = any(?)" +
                 (startDateInclusive != null ? (" and " + dateCol + " >= ?") : "") +
-                " order by " + dateCol;
+                " group by " + symCol;
 
-        List<PriceBar> bars = new ArrayList<>();
+        Map<String, PriceWatermark> result = new HashMap<>();
+        Array symbolArray = connection.createArrayOf("text", symbols.toArray());
         try (PreparedStatement ps = connection.prepareStatement(sql)) {
-            ps.setString(1, symbol);
+            ps.setArray(1, symbolArray);
             if (startDateInclusive != null) {
                 ps.setObject(2, startDateInclusive);
             }
             try (ResultSet rs = ps.executeQuery()) {
                 while (rs.next()) {
+                    String sym = rs.getString("s");
                     LocalDate d = rs.getObject("d", LocalDate.class);
-                    if (d == null) continue;
-                    double o = rs.getDouble("o");
-                    double h = rs.getDouble("h");
-                    double l = rs.getDouble("l");
-                    double c = rs.getDouble("c");
-                    double v = rs.getDouble("volume");
-                    bars.add(new PriceBar(d, o, h, l, c, v));
+                    if (sym == null || d == null) continue;
+                    result.put(sym, new PriceWatermark(sym, d, rs.getLong("n"), rs.getDouble("c")));
                 }
             }
+        } finally {
+            symbolArray.free();
         }
-        return new EtfHistory(symbol, bars);
+        return result;
     }
 
     @Override
@@ -0,0 +1,17 @@
+package com.example.momentum.db;
+
+import com.example.momentum.EtfHistory;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Loads the daily histories of a set of symbols from stock_prices.
+ *
+ * Implementations isolate failures per symbol: symbols that fail or have no rows are reported
+ * with a WARN line and left out of the result, they never fail the whole load.
+ */
+public interface HistoryLoader {
+    Map<String, EtfHistory> loadAll(Collection<String> symbols, LocalDate startDate);
+}
@@ -0,0 +1,110 @@
+package com.example.momentum.db;
+
+import com.example.momentum.EtfHistory;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Decodes the output of {@code COPY (select symbol::text, date::date, o/h/l/c/v::float8 ...) TO STDOUT
+ * (FORMAT binary)} straight into per-symbol columns.
+ *
+ * Binary COPY format: an 11 byte signature, int32 flags, int32 header extension length (+ extension),
+ * then per tuple an int16 field count (-1 marks the end) followed by each field as int32 length
+ * (-1 = NULL) and the raw bytes. Dates are int32 days since 2000-01-01, float8 is a big-endian IEEE double.
+ * Rows must be ordered by symbol.
+ */
+final class PgBinaryCopyDecoder {
+
+    private static final byte[] SIGNATURE = {'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xFF, '\r', '\n', 0};
+    private static final int FIELDS = 7;
+    private static final int PG_EPOCH_DAY = 10_957; // 2000-01-01 as epoch day
+
+    private PgBinaryCopyDecoder() {}
+
+    static Map<String, EtfHistory> decode(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        readHeader(data);
+
+        Map<String, EtfHistory> result = new HashMap<>();
+        byte[] symbolBytes = new byte[64];
+        byte[] currentSymbol = new byte[0];
+        EtfHistory.Builder current = null;
+
+        while (true) {
+            short fieldCount = data.readShort();
+            if (fieldCount == -1) break;
+            if (fieldCount != FIELDS) {
+                throw new IOException("Unexpected field count in COPY data: " + fieldCount);
+            }
+
+            int symLen = data.readInt();
+            if (symLen < 0) {
+                skipFields(data, FIELDS - 1);
+                continue;
+            }
+            if (symLen > symbolBytes.length) symbolBytes = new byte[symLen];
+            data.readFully(symbolBytes, 0, symLen);
+
+            int dateLen = data.readInt();
+            if (dateLen != 4) {
+                if (dateLen > 0) data.skipNBytes(dateLen);
+                skipFields(data, FIELDS - 2);
+                continue;
+            }
+            int epochDay = data.readInt() + PG_EPOCH_DAY;
+
+            double o = readFloat8(data);
+            double h = readFloat8(data);
+            double l = readFloat8(data);
+            double c = readFloat8(data);
+            double v = readFloat8(data);
+
+            // Compare raw bytes so a String is only created once per symbol, not once per row
+            if (current == null || !Arrays.equals(currentSymbol, 0, currentSymbol.length, symbolBytes, 0, symLen)) {
+                if (current != null) result.put(current.symbol(), current.build());
+                currentSymbol = Arrays.copyOf(symbolBytes, symLen);
+                current = new EtfHistory.Builder(new String(currentSymbol, StandardCharsets.UTF_8), 4096);
+            }
+            current.add(epochDay, o, h, l, c, v);
+        }
+        if (current != null) result.put(current.symbol(), current.build());
+        return result;
+    }
+
+    private static void readHeader(DataInputStream data) throws IOException {
+        byte[] sig = new byte[SIGNATURE.length];
+        try {
+            data.readFully(sig);
+        } catch (EOFException e) {
+            throw new IOException("Empty COPY stream", e);
+        }
+        if (!Arrays.equals(sig, SIGNATURE)) {
+            throw new IOException("Not a binary COPY stream");
+        }
+        data.readInt(); // flags (bit 16 = OIDs included, never set for a query COPY)
+        int extension = data.readInt();
+        data.skipNBytes(extension);
+    }
+
+    // NULL numeric columns become 0.0, the same as ResultSet.getDouble does
+    private static double readFloat8(DataInputStream data) throws IOException {
+        int len = data.readInt();
+        if (len == 8) return data.readDouble();
+        if (len > 0) data.skipNBytes(len);
+        return 0.0;
+    }
+
+    private static void skipFields(DataInputStream data, int count) throws IOException {
+        for (int i = 0; i < count; i++) {
+            int len = data.readInt();
+            if (len > 0) data.skipNBytes(len);
+        }
+    }
+}
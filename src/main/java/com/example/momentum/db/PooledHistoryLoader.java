@@ -0,0 +1,107 @@
+package com.example.momentum.db;
+
+import com.example.momentum.EtfHistory;
+import com.example.momentum.TaskExecutors;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Loads histories in parallel over a small pool of JDBC connections.
+ *
+ * Symbols are split into batches; each batch is one bulk query on whichever connection is free,
+ * so at most {@code connections} queries run at once. Failures stay per symbol (see
+ * {@link SingleConnectionHistoryLoader}), and the result map is always assembled in sorted symbol
+ * order regardless of which batch finished first.
+ */
+public class PooledHistoryLoader implements HistoryLoader, AutoCloseable {
+
+    public static final int DEFAULT_BATCH_SIZE = 50;
+
+    private final List<ChartingDbClient> clients = new ArrayList<>();
+    private final BlockingQueue<ChartingDbClient> idle;
+    private final int batchSize;
+    private final boolean binaryCopy;
+
+    public PooledHistoryLoader(DbConfig config, int connections, int batchSize, boolean binaryCopy) throws SQLException {
+        if (connections < 1 || batchSize < 1) {
+            throw new IllegalArgumentException("connections and batchSize must be >= 1");
+        }
+        try {
+            for (int i = 0; i < connections; i++) {
+                clients.add(new ChartingDbClient(config));
+            }
+        } catch (SQLException e) {
+            close();
+            throw e;
+        }
+        this.idle = new ArrayBlockingQueue<>(connections, false, clients);
+        this.batchSize = batchSize;
+        this.binaryCopy = binaryCopy;
+    }
+
+    @Override
+    public Map<String, EtfHistory> loadAll(Collection<String> symbols, LocalDate startDate) {
+        List<String> sorted = symbols.stream().distinct().sorted().toList();
+        List<List<String>> batches = new ArrayList<>();
+        for (int i = 0; i < sorted.size(); i += batchSize) {
+            batches.add(sorted.subList(i, Math.min(sorted.size(), i + batchSize)));
+        }
+
+        Map<String, EtfHistory> loaded = new LinkedHashMap<>();
+        ExecutorService executor = TaskExecutors.newBlockingTaskExecutor(clients.size());
+        try {
+            List<Future<Map<String, EtfHistory>>> futures = new ArrayList<>();
+            for (List<String> batch : batches) {
+                futures.add(executor.submit(() -> loadBatch(batch, startDate)));
+            }
+            for (int b = 0; b < batches.size(); b++) {
+                try {
+                    loaded.putAll(futures.get(b).get());
+                } catch (ExecutionException e) {
+                    for (String s : batches.get(b)) {
+                        System.out.println("WARN: Failed to load history for " + s + ": " + e.getCause().getMessage());
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.out.println("WARN: History loading interrupted, universe is incomplete");
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Map<String, EtfHistory> result = new LinkedHashMap<>();
+        for (String s : sorted) {
+            EtfHistory h = loaded.get(s);
+            if (h != null) result.put(s, h);
+        }
+        return result;
+    }
+
+    private Map<String, EtfHistory> loadBatch(List<String> batch, LocalDate startDate) throws InterruptedException {
+        ChartingDbClient client = idle.take();
+        try {
+            return new SingleConnectionHistoryLoader(client, binaryCopy).loadAll(batch, startDate);
+        } finally {
+            idle.put(client);
+        }
+    }
+
+    @Override
+    public void close() {
+        for (ChartingDbClient c : clients) {
+            c.close();
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.momentum.db;
+
+import java.time.LocalDate;
+
+/**
+ * Summary of the stock_prices rows of one symbol (within a date range), used to decide whether
+ * a locally cached history is still current.
+ *
+ * @param lastDate latest bar date
+ * @param rowCount number of bars
+ * @param closeSum sum of all closes, a cheap checksum to detect restated prices
+ */
+public record PriceWatermark(String symbol, LocalDate lastDate, long rowCount, double closeSum) {}
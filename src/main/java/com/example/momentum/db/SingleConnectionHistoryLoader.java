@@ -0,0 +1,66 @@
+package com.example.momentum.db;
+
+import com.example.momentum.EtfHistory;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Loads the histories of a set of symbols with a single bulk query on one connection.
+ *
+ * If the bulk query fails, the symbols are retried one by one so a single bad symbol does not
+ * take the others down.
+ */
+public class SingleConnectionHistoryLoader implements HistoryLoader {
+
+    private final ChartingDbClient db;
+    private final boolean binaryCopy;
+
+    public SingleConnectionHistoryLoader(ChartingDbClient db) {
+        this(db, false);
+    }
+
+    /**
+     * @param binaryCopy use {@link ChartingDbClient#copyHistories} instead of a streamed select for the bulk query
+     */
+    public SingleConnectionHistoryLoader(ChartingDbClient db, boolean binaryCopy) {
+        this.db = db;
+        this.binaryCopy = binaryCopy;
+    }
+
+    @Override
+    public Map<String, EtfHistory> loadAll(Collection<String> symbols, LocalDate startDate) {
+        Map<String, EtfHistory> loaded;
+        Set<String> failed = new HashSet<>();
+        try {
+            loaded = binaryCopy ? db.copyHistories(symbols, startDate) : db.loadHistories(symbols, startDate);
+        } catch (Exception e) {
+            System.out.println("WARN: Bulk history load failed (" + e.getMessage() + "), loading symbols one by one");
+            loaded = new HashMap<>();
+            for (String s : symbols) {
+                try {
+                    loaded.put(s, db.loadHistory(s, startDate));
+                } catch (Exception ex) {
+                    System.out.println("WARN: Failed to load history for " + s + ": " + ex.getMessage());
+                    failed.add(s);
+                }
+            }
+        }
+
+        Map<String, EtfHistory> result = new HashMap<>();
+        for (String s : symbols) {
+            if (failed.contains(s)) continue;
+            EtfHistory history = loaded.get(s);
+            if (history == null || history.isEmpty()) {
+                System.out.println("WARN: No price history found in DB for symbol " + s + " (skipping)");
+                continue;
+            }
+            result.put(s, history);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.momentum;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The fused pass must give every mode exactly the scores of its own calculator.
+ */
+class FusedScoreCalculatorTest {
+
+    private static final Map<String, EtfHistory> UNIVERSE =
+            new SyntheticUniverseGenerator(24, LocalDate.of(2005, 1, 3), 4, 9).loadUniverse();
+    private static final List<LocalDate> DATES =
+            DateUtils.monthEndTradingDays(UNIVERSE.get(SyntheticUniverseGenerator.BENCHMARK));
+
+    private static ScoreCalculator individual(ScoreMode mode) {
+        return switch (mode) {
+            case RS_COMBINED -> new CombinedMomentumCalculator(63, 126, 252);
+            case RETURN_6M -> new SixMonthReturnCalculator(120);
+            case TV_TECHNICAL -> new TvTechnicalScoreCalculator(TvScoringMode.SERIES);
+        };
+    }
+
+    @Test
+    void fusedScoresEqualIndividualCalculators() {
+        FusedScoreCalculator fused = new FusedScoreCalculator(
+                new CombinedMomentumCalculator(63, 126, 252),
+                new SixMonthReturnCalculator(120),
+                new TvTechnicalScoreCalculator(TvScoringMode.SERIES));
+        Map<ScoreMode, ScoreMatrix> matrices = fused.scoreMatrices(UNIVERSE, DATES);
+
+        for (ScoreMode mode : ScoreMode.values()) {
+            ScoreMatrix matrix = matrices.get(mode);
+            ScoreCalculator calculator = individual(mode);
+            for (int row = 0; row < DATES.size(); row++) {
+                LocalDate date = DATES.get(row);
+                for (String symbol : matrix.getSymbols()) {
+                    RankedEtf expected = calculator.computeScore(UNIVERSE.get(symbol), date)
+                            .map(s -> new RankedEtf(symbol, s.score(), s.daily(), s.weekly(), s.monthly()))
+                            .orElse(null);
+                    assertEquals(expected, matrix.entry(row, matrix.symbolIndex(symbol)),
+                            mode + " " + symbol + " on " + date);
+                }
+            }
+        }
+    }
+
+    @Test
+    void parallelSweepEqualsSequential() {
+        Map<ScoreMode, ScoreMatrix> sequential = new FusedScoreCalculator(
+                new CombinedMomentumCalculator(63, 126, 252),
+                new SixMonthReturnCalculator(120),
+                new TvTechnicalScoreCalculator(TvScoringMode.SERIES)).scoreMatrices(UNIVERSE, DATES);
+        Map<ScoreMode, ScoreMatrix> parallel;
+        try (FusedScoreCalculator fused = new FusedScoreCalculator(
+                new CombinedMomentumCalculator(63, 126, 252),
+                new SixMonthReturnCalculator(120),
+                new TvTechnicalScoreCalculator(TvScoringMode.SERIES),
+                RankingExecutor.FORK_JOIN, 4)) {
+            parallel = fused.scoreMatrices(UNIVERSE, DATES);
+        }
+
+        for (ScoreMode mode : ScoreMode.values()) {
+            for (int row = 0; row < DATES.size(); row++) {
+                assertEquals(sequential.get(mode).ranking(row), parallel.get(mode).ranking(row), mode + " on " + DATES.get(row));
+            }
+        }
+    }
+
+    @Test
+    void precomputedRankersRankLikeIndividualOnes() {
+        FusedScoreCalculator fused = new FusedScoreCalculator(
+                new CombinedMomentumCalculator(63, 126, 252),
+                new SixMonthReturnCalculator(120),
+                new TvTechnicalScoreCalculator(TvScoringMode.SERIES));
+        Map<ScoreMode, ScoreMatrix> matrices = fused.scoreMatrices(UNIVERSE, DATES);
+
+        for (ScoreMode mode : ScoreMode.values()) {
+            try (EtfRanker precomputed = new EtfRanker(fused.calculatorFor(mode, matrices.get(mode)), mode);
+                 EtfRanker own = new EtfRanker(individual(mode), mode)) {
+                for (LocalDate date : DATES) {
+                    assertEquals(own.rank(UNIVERSE, date), precomputed.rank(UNIVERSE, date), mode + " on " + date);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.momentum;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.jupiter.api.Test;
+
+class MonteCarloBootstrapTest {
+
+    private static double[] returns(int n, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        double[] returns = new double[n];
+        for (int i = 0; i < n; i++) returns[i] = 0.01 + 0.08 * (random.nextDouble() - 0.5);
+        return returns;
+    }
+
+    private static void assertSameDistribution(MonteCarloBootstrap.Distribution expected, MonteCarloBootstrap.Distribution actual) {
+        assertEquals(expected.paths(), actual.paths());
+        for (int p = 0; p <= 100; p++) {
+            assertEquals(expected.cagrPercentile(p), actual.cagrPercentile(p), "CAGR percentile " + p);
+            assertEquals(expected.maxDrawdownPercentile(p), actual.maxDrawdownPercentile(p), "drawdown percentile " + p);
+        }
+        assertEquals(expected.lossProbability(), actual.lossProbability());
+    }
+
+    // Runs on a pool of the given size, so the parallel chunks are spread over that many threads
+    private static MonteCarloBootstrap.Distribution runOn(int threads, MonteCarloBootstrap bootstrap, double[] returns)
+            throws InterruptedException, ExecutionException {
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            return pool.submit(() -> bootstrap.run(returns, 12)).get();
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void sameSeedGivesTheSameDistributionOnAnyNumberOfThreads() throws Exception {
+        double[] returns = returns(120, 3);
+        for (BootstrapMethod method : BootstrapMethod.values()) {
+            MonteCarloBootstrap bootstrap = new MonteCarloBootstrap(method, 6, 10_000, 42);
+            MonteCarloBootstrap.Distribution expected = bootstrap.run(returns, 12);
+            assertSameDistribution(expected, bootstrap.run(returns, 12));
+            assertSameDistribution(expected, runOn(1, bootstrap, returns));
+            assertSameDistribution(expected, runOn(7, bootstrap, returns));
+
+            MonteCarloBootstrap.Distribution otherSeed = new MonteCarloBootstrap(method, 6, 10_000, 43).run(returns, 12);
+            assertNotEquals(expected.cagrPercentile(50), otherSeed.cagrPercentile(50));
+        }
+    }
+
+    @Test
+    void constantReturnsGiveADegenerateDistribution() {
+        for (double r : new double[] {0.01, -0.005}) {
+            double[] returns = new double[30];
+            Arrays.fill(returns, r);
+            double equity = 1.0;
+            for (double ignored : returns) equity *= 1.0 + r;
+            double cagr = Math.pow(equity, 12.0 / 30) - 1.0;
+            double drawdown = r >= 0 ? 0.0 : 1.0 - equity;
+
+            for (BootstrapMethod method : BootstrapMethod.values()) {
+                MonteCarloBootstrap.Distribution d = new MonteCarloBootstrap(method, 4, 3_000, 7).run(returns, 12);
+                for (int p = 0; p <= 100; p += 5) {
+                    assertEquals(cagr, d.cagrPercentile(p), method + " CAGR percentile " + p);
+                    assertEquals(drawdown, d.maxDrawdownPercentile(p), method + " drawdown percentile " + p);
+                }
+                assertEquals(r >= 0 ? 0.0 : 1.0, d.lossProbability());
+            }
+        }
+    }
+
+    @Test
+    void blocksAsLongAsTheHistoryOnlyRotateIt() {
+        // A BLOCK path of n periods is the history rotated, so every path has the backtest's CAGR;
+        // STATIONARY runs of the same mean length are cut at random and spread out
+        double[] returns = returns(60, 9);
+        double equity = 1.0;
+        for (double r : returns) equity *= 1.0 + r;
+        double cagr = Math.pow(equity, 12.0 / returns.length) - 1.0;
+
+        MonteCarloBootstrap.Distribution block = new MonteCarloBootstrap(BootstrapMethod.BLOCK, 60, 2_000, 1).run(returns, 12);
+        assertEquals(cagr, block.cagrPercentile(0), 1e-12);
+        assertEquals(cagr, block.cagrPercentile(100), 1e-12);
+
+        MonteCarloBootstrap.Distribution stationary =
+                new MonteCarloBootstrap(BootstrapMethod.STATIONARY, 60, 2_000, 1).run(returns, 12);
+        assertTrue(stationary.cagrPercentile(90) - stationary.cagrPercentile(10) > 0.01);
+    }
+
+    @Test
+    void percentilesInterpolateBetweenRanks() {
+        MonteCarloBootstrap.Distribution d = new MonteCarloBootstrap.Distribution(
+                new double[] {-0.2, -0.1, 0.0, 0.0, 0.4}, new double[] {0.0, 0.1, 0.2, 0.3, 0.5});
+        assertEquals(-0.2, d.cagrPercentile(0));
+        assertEquals(-0.1, d.cagrPercentile(25));
+        assertEquals(0.0, d.cagrPercentile(50));
+        assertEquals(0.2, d.cagrPercentile(87.5), 1e-15);
+        assertEquals(0.4, d.cagrPercentile(100));
+        assertEquals(0.4, d.cagrPercentile(150)); // clamped
+        assertEquals(0.04, d.maxDrawdownPercentile(10), 1e-15);
+        assertEquals(0.4, d.maxDrawdownPercentile(87.5), 1e-15);
+        assertEquals(0.4, d.lossProbability()); // zero CAGR is not a loss
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.momentum;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class RelativeStrengthBacktesterTest {
+
+    private static final LocalDate START = LocalDate.of(2015, 1, 2);
+    private static final int DAYS = 3 * 261;
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * SPY rises steadily, so the MA filter is on from the first month end and never switches within
+     * a month. The risky symbols have gaps and list at different dates.
+     */
+    private static Map<String, EtfHistory> universe() {
+        Map<String, EtfHistory> universe = new HashMap<>();
+        SplittableRandom random = new SplittableRandom(21);
+        universe.put("SPY", history("SPY", random, 0, 0.0, 0.0002, 0.0));
+        universe.put("IEF", history("IEF", random, 0, 0.0, 0.0001, 0.004));
+        for (int s = 0; s < 8; s++) {
+            int listedAt = s < 3 ? 0 : 60 * s;        // late listings
+            double missing = s % 2 == 0 ? 0.03 : 0.0; // gaps on top of the holidays
+            universe.put("R" + s, history("R" + s, random, listedAt, missing, 0.0004 * (s - 3), 0.015));
+        }
+        return universe;
+    }
+
+    private static EtfHistory history(String symbol, SplittableRandom random, int listedAt, double missing,
+                                      double drift, double vol) {
+        EtfHistory.Builder b = new EtfHistory.Builder(symbol);
+        double price = 50.0;
+        LocalDate date = START;
+        for (int i = 0; i < DAYS; i++) {
+            date = i == 0 ? date : nextWeekday(date);
+            price *= 1.0 + drift + vol * (random.nextDouble() - 0.5);
+            if (i < listedAt || random.nextDouble() < missing) continue;
+            b.add((int) date.toEpochDay(), price, price * 1.01, price * 0.99, price, 1e5);
+        }
+        return b.build();
+    }
+
+    private static LocalDate nextWeekday(LocalDate date) {
+        LocalDate next = date.plusDays(1);
+        while (next.getDayOfWeek() == DayOfWeek.SATURDAY || next.getDayOfWeek() == DayOfWeek.SUNDAY) {
+            next = next.plusDays(1);
+        }
+        return next;
+    }
+
+    private RelativeStrengthBacktester backtester(Map<String, EtfHistory> universe, RotationSpeed speed) {
+        EtfRanker ranker = new EtfRanker(new CombinedMomentumCalculator(21, 63), ScoreMode.RS_COMBINED);
+        return new RelativeStrengthBacktester(universe, ranker, 2, "SPY", "IEF", 10, speed, 2,
+                false, tempDir.resolve("ranked.csv"));
+    }
+
+    @Test
+    void dailyCurveMatchesMonthlyCurveAtMonthEnds() {
+        Map<String, EtfHistory> universe = universe();
+        for (RotationSpeed speed : RotationSpeed.values()) {
+            RelativeStrengthBacktester backtester = backtester(universe, speed);
+            EquityCurve monthly = backtester.runBacktest(100_000.0);
+            DailyBacktestResult daily = backtester.runDailyBacktest(100_000.0);
+            assertEquals(0, daily.riskSwitches());
+
+            Map<LocalDate, Double> dailyEquity = new HashMap<>();
+            List<LocalDate> dates = daily.result().curve().dates();
+            for (int i = 0; i < dates.size(); i++) {
+                dailyEquity.put(dates.get(i), daily.result().curve().equity().get(i));
+            }
+            assertTrue(monthly.dates().size() > 30);
+            for (int i = 0; i < monthly.dates().size(); i++) {
+                Double value = dailyEquity.get(monthly.dates().get(i));
+                assertNotNull(value, "no daily value on " + monthly.dates().get(i));
+                double expected = monthly.equity().get(i);
+                assertEquals(expected, value, 1e-12 * expected, speed + " on " + monthly.dates().get(i));
+            }
+        }
+    }
+
+    @Test
+    void dailyBacktestRejectsSampledHistories() {
+        Map<String, EtfHistory> universe = universe();
+        universe.put("R1", universe.get("R1").asSampled());
+        RelativeStrengthBacktester backtester = backtester(universe, RotationSpeed.FAST);
+        assertThrows(IllegalStateException.class, () -> backtester.runDailyBacktest(100_000.0));
+    }
+}
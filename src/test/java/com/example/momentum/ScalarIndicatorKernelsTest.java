@@ -0,0 +1,123 @@
+package com.example.momentum;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDate;
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The scalar kernels are the exact mode: every indicator built on them must equal the original
+ * loops bit for bit ({@code assertEquals(double, double)} compares the bits).
+ */
+class ScalarIndicatorKernelsTest {
+
+    private static final IndicatorKernels K = ScalarIndicatorKernels.INSTANCE;
+    private static final int N = 400;
+
+    private final double[] high = new double[N];
+    private final double[] low = new double[N];
+    private final double[] close = new double[N];
+    private final double[] volume = new double[N];
+
+    ScalarIndicatorKernelsTest() {
+        SplittableRandom random = new SplittableRandom(7);
+        double price = 50.0;
+        for (int i = 0; i < N; i++) {
+            // a flat stretch gives zero ranges and zero volume
+            boolean flat = i >= 120 && i < 150;
+            if (!flat) price *= 1.0 + 0.03 * (random.nextDouble() - 0.5);
+            close[i] = price;
+            high[i] = flat ? price : price * (1.0 + 0.02 * random.nextDouble());
+            low[i] = flat ? price : price * (1.0 - 0.02 * random.nextDouble());
+            volume[i] = flat ? 0.0 : Math.rint(1e5 * random.nextDouble());
+        }
+    }
+
+    @Test
+    void movingAveragesMatchOriginalLoops() {
+        for (int end = 0; end < N; end++) {
+            for (int period : new int[] {4, 9, 10, 20, 30, 50, 100, 200}) {
+                int from = end - period + 1;
+                if (from < 0) continue;
+                assertEquals(BaselineTvRater.sma(close, end, period), K.sum(close, from, end + 1) / period);
+                assertEquals(BaselineTvRater.wma(close, end, period),
+                        K.rampDot(close, from, end + 1) / (period * (period + 1) / 2.0));
+            }
+            if (end >= 19) {
+                double den = K.sum(volume, end - 19, end + 1);
+                double vwma = den == 0.0 ? Double.NaN : K.dot(close, volume, end - 19, end + 1) / den;
+                assertEquals(BaselineTvRater.vwma(close, volume, end, 20), vwma, "vwma at " + end);
+            }
+        }
+    }
+
+    @Test
+    void rangeIndicatorsMatchOriginalLoops() {
+        for (int end = 25; end < N; end++) {
+            int from = end - 25;
+            double ichimoku = (K.max(high, from, end + 1) + K.min(low, from, end + 1)) / 2.0;
+            assertEquals(BaselineTvRater.ichimokuBaseLine(high, low, end, 26), ichimoku);
+
+            from = end - 13;
+            double hh = K.max(high, from, end + 1);
+            double ll = K.min(low, from, end + 1);
+            double stochK = hh == ll ? 0.0 : 100.0 * (close[end] - ll) / (hh - ll);
+            double williamsR = hh == ll ? 0.0 : -100.0 * (hh - close[end]) / (hh - ll);
+            assertEquals(BaselineTvRater.stochK(high, low, close, end, 14), stochK);
+            assertEquals(BaselineTvRater.williamsR(high, low, close, end, 14), williamsR);
+        }
+    }
+
+    @Test
+    void oscillatorSumsMatchOriginalLoops() {
+        double[] median = new double[N];
+        for (int i = 0; i < N; i++) median[i] = (high[i] + low[i]) / 2.0;
+
+        for (int end = 33; end < N; end++) {
+            assertEquals(BaselineTvRater.sma(median, end, 34), K.medianPriceSum(high, low, end - 33, end + 1) / 34);
+            assertEquals(BaselineTvRater.sma(median, end, 5), K.medianPriceSum(high, low, end - 4, end + 1) / 5);
+
+            int from = end - 19;
+            double smaTp = K.typicalPriceSum(high, low, close, from, end + 1) / 20;
+            double md = K.typicalPriceAbsDeviationSum(high, low, close, from, end + 1, smaTp) / 20;
+            double cci = md == 0.0 ? 0.0 : ((high[end] + low[end] + close[end]) / 3.0 - smaTp) / (0.015 * md);
+            assertEquals(BaselineTvRater.cci(high, low, close, end, 20), cci, "cci at " + end);
+
+            double uo = Double.NaN;
+            double tr1 = K.trueRangeFromPrevCloseSum(high, low, close, end - 6, end + 1);
+            double tr2 = K.trueRangeFromPrevCloseSum(high, low, close, end - 13, end + 1);
+            double tr3 = K.trueRangeFromPrevCloseSum(high, low, close, end - 27, end + 1);
+            if (tr1 != 0 && tr2 != 0 && tr3 != 0) {
+                uo = 100.0 * (4 * (K.buyingPressureSum(low, close, end - 6, end + 1) / tr1)
+                        + 2 * (K.buyingPressureSum(low, close, end - 13, end + 1) / tr2)
+                        + (K.buyingPressureSum(low, close, end - 27, end + 1) / tr3)) / 7.0;
+            }
+            assertEquals(BaselineTvRater.ultimateOscillator(high, low, close, end, 7, 14, 28), uo, "uo at " + end);
+        }
+    }
+
+    @Test
+    void atrMatchesOriginalLoop() {
+        EtfHistory history = EtfHistory.ofColumns("X", days(), close.clone(), high.clone(), low.clone(),
+                close.clone(), volume.clone());
+        for (int end = 20; end < N; end++) {
+            // Original TechnicalIndicators.atr: true ranges from bar 1, then the last 20 summed in order
+            double sum = 0.0;
+            for (int i = end - 19; i <= end; i++) {
+                double highLow = high[i] - low[i];
+                double highPrevClose = Math.abs(high[i] - close[i - 1]);
+                double lowPrevClose = Math.abs(low[i] - close[i - 1]);
+                sum += Math.max(highLow, Math.max(highPrevClose, lowPrevClose));
+            }
+            LocalDate date = history.date(end);
+            assertEquals(sum / 20, TechnicalIndicators.atr(history, date, 20).getAsDouble());
+        }
+    }
+
+    private static int[] days() {
+        int[] days = new int[N];
+        for (int i = 0; i < N; i++) days[i] = 10_000 + i;
+        return days;
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.momentum;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Rankings read from a {@link ScoreMatrix} must equal {@link EtfRanker#rank} date by date.
+ */
+class ScoreMatrixTest {
+
+    private static final Map<String, EtfHistory> UNIVERSE =
+            new SyntheticUniverseGenerator(24, LocalDate.of(2005, 1, 3), 4, 3).loadUniverse();
+    private static final List<LocalDate> DATES =
+            DateUtils.monthEndTradingDays(UNIVERSE.get(SyntheticUniverseGenerator.BENCHMARK));
+
+    private static void assertMatrixRankingsMatch(ScoreCalculator calculator, ScoreMode mode, RankingExecutor executor) {
+        try (EtfRanker ranker = new EtfRanker(calculator, mode, executor, 3)) {
+            ScoreMatrix matrix = ranker.scoreMatrix(UNIVERSE, DATES);
+            List<List<RankedEtf>> all = ranker.rankAll(UNIVERSE, DATES, Integer.MAX_VALUE);
+            for (int row = 0; row < DATES.size(); row++) {
+                List<RankedEtf> expected = ranker.rank(UNIVERSE, DATES.get(row));
+                assertEquals(expected, matrix.ranking(row), mode + " on " + DATES.get(row));
+                assertEquals(expected, all.get(row), mode + " on " + DATES.get(row));
+            }
+        }
+    }
+
+    @Test
+    void combinedMomentum() {
+        assertMatrixRankingsMatch(new CombinedMomentumCalculator(new int[] {63, 126, 252}),
+                ScoreMode.RS_COMBINED, RankingExecutor.SEQUENTIAL);
+    }
+
+    @Test
+    void sixMonthReturn() {
+        assertMatrixRankingsMatch(new SixMonthReturnCalculator(120), ScoreMode.RETURN_6M, RankingExecutor.SEQUENTIAL);
+    }
+
+    @Test
+    void tvTechnicalSeries() {
+        assertMatrixRankingsMatch(new TvTechnicalScoreCalculator(TvScoringMode.SERIES),
+                ScoreMode.TV_TECHNICAL, RankingExecutor.SEQUENTIAL);
+    }
+
+    @Test
+    void tvTechnicalIncremental() {
+        assertMatrixRankingsMatch(new TvTechnicalScoreCalculator(TvScoringMode.INCREMENTAL),
+                ScoreMode.TV_TECHNICAL, RankingExecutor.SEQUENTIAL);
+    }
+
+    @Test
+    void lazyTvRankingKeepsTheTopPositions() {
+        for (TvScoringMode scoring : TvScoringMode.values()) {
+            try (EtfRanker ranker = new EtfRanker(new TvTechnicalScoreCalculator(scoring), ScoreMode.TV_TECHNICAL)) {
+                for (LocalDate date : DATES) {
+                    List<RankedEtf> full = ranker.rank(UNIVERSE, date);
+                    for (int k : new int[] {1, 2, 3, 5}) {
+                        List<RankedEtf> lazy = ranker.rank(UNIVERSE, date, k);
+                        int top = Math.min(k, full.size());
+                        assertEquals(full.subList(0, top), lazy.subList(0, top), scoring + " top " + k + " on " + date);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void parallelScoring() {
+        assertMatrixRankingsMatch(new CombinedMomentumCalculator(new int[] {63, 126, 252}),
+                ScoreMode.RS_COMBINED, RankingExecutor.FORK_JOIN);
+        assertMatrixRankingsMatch(new TvTechnicalScoreCalculator(TvScoringMode.SERIES),
+                ScoreMode.TV_TECHNICAL, RankingExecutor.FORK_JOIN);
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.momentum;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The streaming rater (ring buffers on the scalar kernels) must rate every bar exactly like the
+ * original rater does on the whole history up to that bar.
+ */
+class StreamingTvRaterTest {
+
+    private static List<PriceBar> bars(int n, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        List<PriceBar> bars = new ArrayList<>(n);
+        LocalDate date = LocalDate.of(2010, 1, 4);
+        double price = 80.0;
+        for (int i = 0; i < n; i++) {
+            boolean flat = i % 97 < 6; // flat stretches: zero ranges, zero volume
+            if (!flat) price *= 1.0 + 0.04 * (random.nextDouble() - 0.5);
+            double high = flat ? price : price * (1.0 + 0.02 * random.nextDouble());
+            double low = flat ? price : price * (1.0 - 0.02 * random.nextDouble());
+            double volume = flat ? 0.0 : Math.rint(1e6 * random.nextDouble());
+            bars.add(new PriceBar(date.plusDays(i), price, high, low, price, volume));
+        }
+        return bars;
+    }
+
+    private static void assertSame(BaselineTvRater.TvTimeframeScore expected, TvRater.TvTimeframeScore actual, int bar) {
+        assertEquals(expected.maScore(), actual.maScore(), "MA score at bar " + bar);
+        assertEquals(expected.oscScore(), actual.oscScore(), "oscillator score at bar " + bar);
+        assertEquals(expected.overallScore(), actual.overallScore(), "overall score at bar " + bar);
+    }
+
+    @Test
+    void everyBarMatchesWholeHistoryRating() {
+        List<PriceBar> bars = bars(600, 11);
+        StreamingTvRater rater = new StreamingTvRater();
+        for (int i = 0; i < bars.size(); i++) {
+            PriceBar b = bars.get(i);
+            rater.push(b.high(), b.low(), b.close(), b.volume());
+            BaselineTvRater.TvTimeframeScore expected = BaselineTvRater.rate(bars.subList(0, i + 1));
+            assertSame(expected, rater.score(), i);
+            assertEquals(expected.overallScore(), rater.overallScore(), "overall score at bar " + i);
+        }
+    }
+
+    @Test
+    void tentativeBarDoesNotChangeTheRater() {
+        List<PriceBar> bars = bars(400, 5);
+        StreamingTvRater rater = new StreamingTvRater();
+        for (int i = 0; i + 1 < bars.size(); i++) {
+            PriceBar b = bars.get(i);
+            rater.push(b.high(), b.low(), b.close(), b.volume());
+
+            PriceBar next = bars.get(i + 1);
+            TvRater.TvTimeframeScore with = rater.scoreWith(next.high(), next.low(), next.close(), next.volume());
+            assertSame(BaselineTvRater.rate(bars.subList(0, i + 2)), with, i + 1);
+            assertSame(BaselineTvRater.rate(bars.subList(0, i + 1)), rater.score(), i);
+        }
+    }
+
+    @Test
+    void copiesAdvanceIndependently() {
+        List<PriceBar> bars = bars(500, 3);
+        StreamingTvRater rater = new StreamingTvRater();
+        for (int i = 0; i < 300; i++) {
+            PriceBar b = bars.get(i);
+            rater.push(b.high(), b.low(), b.close(), b.volume());
+        }
+        StreamingTvRater copy = rater.copy();
+        for (int i = 300; i < bars.size(); i++) {
+            PriceBar b = bars.get(i);
+            copy.push(b.high(), b.low(), b.close(), b.volume());
+        }
+        assertSame(BaselineTvRater.rate(bars.subList(0, 300)), rater.score(), 299);
+        assertSame(BaselineTvRater.rate(bars), copy.score(), bars.size() - 1);
+    }
+}
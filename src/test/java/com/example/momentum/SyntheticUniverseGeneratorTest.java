@@ -0,0 +1,83 @@
+package com.example.momentum;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.jupiter.api.Test;
+
+class SyntheticUniverseGeneratorTest {
+
+    private static final LocalDate START = LocalDate.of(2010, 1, 4);
+
+    private static void assertSameColumns(EtfHistory expected, EtfHistory actual) {
+        String symbol = expected.getSymbol();
+        assertEquals(expected.size(), actual.size(), symbol);
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.epochDay(i), actual.epochDay(i), symbol + " date " + i);
+            assertEquals(expected.open(i), actual.open(i), symbol + " open " + i);
+            assertEquals(expected.high(i), actual.high(i), symbol + " high " + i);
+            assertEquals(expected.low(i), actual.low(i), symbol + " low " + i);
+            assertEquals(expected.close(i), actual.close(i), symbol + " close " + i);
+            assertEquals(expected.volume(i), actual.volume(i), symbol + " volume " + i);
+        }
+    }
+
+    @Test
+    void sameParametersGiveTheSameUniverseOnAnyNumberOfThreads() throws Exception {
+        SyntheticUniverseGenerator generator = new SyntheticUniverseGenerator(40, START, 4, 99);
+        Map<String, EtfHistory> expected = generator.loadUniverse();
+        ForkJoinPool single = new ForkJoinPool(1);
+        Map<String, EtfHistory> sequential;
+        try {
+            sequential = single.submit(generator::loadUniverse).get();
+        } finally {
+            single.shutdown();
+        }
+
+        for (Map<String, EtfHistory> actual : List.of(new SyntheticUniverseGenerator(40, START, 4, 99).loadUniverse(), sequential)) {
+            assertEquals(new ArrayList<>(expected.keySet()), new ArrayList<>(actual.keySet()));
+            for (EtfHistory h : expected.values()) {
+                assertSameColumns(h, actual.get(h.getSymbol()));
+            }
+        }
+
+        Map<String, EtfHistory> otherSeed = new SyntheticUniverseGenerator(40, START, 4, 100).loadUniverse();
+        EtfHistory benchmark = expected.get(SyntheticUniverseGenerator.BENCHMARK);
+        EtfHistory otherBenchmark = otherSeed.get(SyntheticUniverseGenerator.BENCHMARK);
+        assertNotEquals(benchmark.close(benchmark.size() - 1), otherBenchmark.close(otherBenchmark.size() - 1));
+    }
+
+    @Test
+    void universeHasLateListingsAndGaps() {
+        Map<String, EtfHistory> universe = new SyntheticUniverseGenerator(60, START, 4, 7).loadUniverse();
+        assertEquals(60, universe.size());
+
+        TreeSet<Integer> calendar = new TreeSet<>();
+        for (EtfHistory h : universe.values()) {
+            for (int i = 0; i < h.size(); i++) calendar.add(h.epochDay(i));
+        }
+        int firstDay = calendar.first();
+        assertEquals(firstDay, universe.get(SyntheticUniverseGenerator.BENCHMARK).epochDay(0));
+        assertEquals(firstDay, universe.get(SyntheticUniverseGenerator.SAFETY).epochDay(0));
+
+        int lateListings = 0;
+        int withGaps = 0;
+        for (EtfHistory h : universe.values()) {
+            if (h.epochDay(0) > firstDay) lateListings++;
+            int expectedBars = calendar.tailSet(h.epochDay(0)).size();
+            if (h.size() < expectedBars) withGaps++;
+            for (int i = 1; i < h.size(); i++) {
+                assertTrue(h.epochDay(i) > h.epochDay(i - 1), h.getSymbol() + " dates ascend");
+            }
+        }
+        assertTrue(lateListings >= 10, "late listings: " + lateListings);
+        assertTrue(withGaps >= 10, "symbols with gaps: " + withGaps);
+    }
+}
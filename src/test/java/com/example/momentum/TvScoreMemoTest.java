@@ -0,0 +1,82 @@
+package com.example.momentum;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Memoized weekly/monthly scores must equal rating the resampled bars from scratch, whatever the
+ * query order and however many checkpoints were evicted.
+ */
+class TvScoreMemoTest {
+
+    private static final Map<String, EtfHistory> UNIVERSE =
+            new SyntheticUniverseGenerator(6, LocalDate.of(2012, 1, 2), 3, 5).loadUniverse();
+
+    // Completed periods before the one containing daily bar lastDaily, plus that period so far
+    private static double expectedScore(EtfHistory daily, TvResampler.PeriodType type, int lastDaily) {
+        EtfHistory periods = TvResampler.periodBars(daily, type);
+        long periodStart = TvResampler.periodStartEpochDay(daily.epochDay(lastDaily), type);
+        List<PriceBar> bars = new ArrayList<>();
+        for (int k = 0; k < periods.size() && periods.epochDay(k) < periodStart; k++) {
+            bars.add(periods.bar(k));
+        }
+        int firstDaily = lastDaily;
+        while (firstDaily > 0 && daily.epochDay(firstDaily - 1) >= periodStart) firstDaily--;
+        double high = Double.NEGATIVE_INFINITY;
+        double low = Double.POSITIVE_INFINITY;
+        double volume = 0.0;
+        for (int i = firstDaily; i <= lastDaily; i++) {
+            high = Math.max(high, daily.high(i));
+            low = Math.min(low, daily.low(i));
+            volume += daily.volume(i);
+        }
+        bars.add(new PriceBar(daily.date(lastDaily), daily.open(firstDaily), high, low, daily.close(lastDaily), volume));
+        return BaselineTvRater.rate(bars).overallScore();
+    }
+
+    private static void assertMemoMatches(TvScoreMemo memo, List<int[]> queries) {
+        List<String> symbols = new ArrayList<>(UNIVERSE.keySet());
+        Collections.sort(symbols);
+        for (int[] q : queries) {
+            EtfHistory daily = UNIVERSE.get(symbols.get(q[0]));
+            TvResampler.PeriodType type = TvResampler.PeriodType.values()[q[1]];
+            int lastDaily = q[2];
+            assertEquals(expectedScore(daily, type, lastDaily), memo.overallScore(daily, type, lastDaily),
+                    daily.getSymbol() + " " + type + " on " + daily.date(lastDaily));
+        }
+    }
+
+    private static List<int[]> allQueries() {
+        List<String> symbols = new ArrayList<>(UNIVERSE.keySet());
+        Collections.sort(symbols);
+        List<int[]> queries = new ArrayList<>();
+        for (int s = 0; s < symbols.size(); s++) {
+            for (int t = 0; t < TvResampler.PeriodType.values().length; t++) {
+                for (int i = 0; i < UNIVERSE.get(symbols.get(s)).size(); i++) {
+                    queries.add(new int[] {s, t, i});
+                }
+            }
+        }
+        return queries;
+    }
+
+    @Test
+    void forwardWalkMatchesRatingFromScratch() {
+        assertMemoMatches(new TvScoreMemo(4), allQueries());
+    }
+
+    @Test
+    void randomOrderWithEvictionsMatchesRatingFromScratch() {
+        List<int[]> queries = new ArrayList<>(allQueries().stream().filter(q -> q[0] < 2).toList());
+        Collections.shuffle(queries, new Random(7));
+        // Far fewer checkpoints than (symbol, timeframe, period) keys, so going back finds some and misses others
+        assertMemoMatches(new TvScoreMemo(16), queries);
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.momentum;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class WalkForwardOptimizerTest {
+
+    private static final double INITIAL_CAPITAL = 100_000.0;
+    private static final int IN_SAMPLE_YEARS = 3;
+    private static final int OUT_OF_SAMPLE_MONTHS = 10; // does not divide the history, so the last window is short
+
+    private static final Map<String, EtfHistory> UNIVERSE =
+            new SyntheticUniverseGenerator(20, LocalDate.of(2005, 1, 3), 8, 11).loadUniverse();
+
+    private static List<BacktestConfig> configs() {
+        return new ParameterGrid(
+                List.of(ScoreMode.RS_COMBINED, ScoreMode.RETURN_6M),
+                List.of(RotationSpeed.values()),
+                List.of(2, 3),
+                List.of(100, 200),
+                List.of(2),
+                List.of(List.of(63, 126, 252)),
+                List.of(120)).configs();
+    }
+
+    @Test
+    void foldsTileTheHistoryAndStitchIntoOneCurve() {
+        try (ParameterSweep sweep = new ParameterSweep(UNIVERSE, SyntheticUniverseGenerator.BENCHMARK,
+                SyntheticUniverseGenerator.SAFETY, INITIAL_CAPITAL, new TvTechnicalScoreCalculator(TvScoringMode.SERIES))) {
+            List<LocalDate> dates = sweep.getRebalanceDates();
+            List<WalkForwardOptimizer.Fold> folds =
+                    new WalkForwardOptimizer(sweep, IN_SAMPLE_YEARS, OUT_OF_SAMPLE_MONTHS).run(configs(), INITIAL_CAPITAL);
+            assertTrue(folds.size() >= 4, "folds: " + folds.size());
+
+            double equity = INITIAL_CAPITAL;
+            for (int k = 0; k < folds.size(); k++) {
+                WalkForwardOptimizer.Fold fold = folds.get(k);
+                int isStart = dates.indexOf(fold.inSampleStart());
+                int oosStart = dates.indexOf(fold.outOfSampleStart());
+                int oosEnd = dates.indexOf(fold.outOfSampleEnd());
+
+                // Windows: the in-sample years end where the out-of-sample months begin, folds follow without gaps
+                assertEquals(IN_SAMPLE_YEARS * 12, oosStart - isStart, "fold " + k);
+                assertTrue(oosEnd > oosStart && oosEnd - oosStart <= OUT_OF_SAMPLE_MONTHS, "fold " + k);
+                if (k > 0) {
+                    assertEquals(folds.get(k - 1).outOfSampleEnd(), fold.outOfSampleStart(), "fold " + k);
+                }
+                for (LocalDate d : fold.inSample().curve().dates()) {
+                    assertTrue(d.isAfter(fold.inSampleStart()) && !d.isAfter(fold.outOfSampleStart()), "fold " + k + " in sample " + d);
+                }
+                for (LocalDate d : fold.outOfSample().curve().dates()) {
+                    assertTrue(d.isAfter(fold.outOfSampleStart()) && !d.isAfter(fold.outOfSampleEnd()), "fold " + k + " out of sample " + d);
+                }
+
+                // Each segment is the chosen config traded from the equity the previous one ended with
+                BacktestResult expected = sweep.simulate(fold.chosen(), equity, fold.outOfSampleStart(), fold.outOfSampleEnd());
+                assertEquals(expected.curve(), fold.outOfSample().curve(), "fold " + k);
+                equity = fold.outOfSample().finalEquity(equity);
+            }
+            assertEquals(dates.get(dates.size() - 1), folds.get(folds.size() - 1).outOfSampleEnd());
+
+            EquityCurve stitched = WalkForwardOptimizer.stitch(folds);
+            for (int i = 1; i < stitched.dates().size(); i++) {
+                assertTrue(stitched.dates().get(i).isAfter(stitched.dates().get(i - 1)), "stitched date " + i);
+            }
+            assertEquals(dates.size() - 1 - IN_SAMPLE_YEARS * 12, stitched.dates().size());
+            assertEquals(equity, stitched.equity().get(stitched.equity().size() - 1));
+        }
+    }
+}
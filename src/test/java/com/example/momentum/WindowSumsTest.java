@@ -0,0 +1,69 @@
+package com.example.momentum;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.Test;
+
+class WindowSumsTest {
+
+    private static EtfHistory history(int n, double startPrice) {
+        SplittableRandom random = new SplittableRandom(17);
+        EtfHistory.Builder b = new EtfHistory.Builder("X", n);
+        double price = startPrice;
+        for (int i = 0; i < n; i++) {
+            price *= 1.0 + 0.02 * (random.nextDouble() - 0.5);
+            b.add(10_000 + i, price, price, price, price, 1.0);
+        }
+        return b.build();
+    }
+
+    private static double directSum(EtfHistory h, int from, int to) {
+        double sum = 0.0;
+        for (int i = from; i < to; i++) sum += h.close(i);
+        return sum;
+    }
+
+    @Test
+    void windowSumsStayCloseToDirectSumsOnLongHistories() {
+        // A long, expensive history: totals over the whole of it would be far larger than any window
+        EtfHistory h = history(20_000, 5_000.0);
+        WindowSums sums = h.windowSums();
+        for (int end = 0; end <= h.size(); end += 7) {
+            for (int period : new int[] {1, 10, 200, 255, 256, 257, 1000}) {
+                int from = end - period;
+                if (from < 0) continue;
+                double direct = directSum(h, from, end);
+                double error = Math.abs(sums.closeSum(from, end) - direct);
+                assertTrue(error <= 1e-13 * direct, "window [" + from + ", " + end + ") off by " + error);
+            }
+        }
+    }
+
+    @Test
+    void viewsShareTheParentSumsShifted() {
+        EtfHistory h = history(1_500, 100.0);
+        EtfHistory view = h.from(h.date(300)).until(h.date(1_299));
+        assertEquals(1_000, view.size());
+        for (int from = 0; from < view.size(); from += 13) {
+            for (int to = from; to <= view.size(); to += 29) {
+                assertEquals(h.windowSums().closeSum(from + 300, to + 300), view.windowSums().closeSum(from, to));
+            }
+        }
+        assertSame(view.windowSums(), view.windowSums()); // built once per view
+    }
+
+    @Test
+    void simpleMovingAverageIsTheSameOnViews() {
+        EtfHistory h = history(1_200, 100.0);
+        EtfHistory view = h.slice(450, 1_200);
+        for (int i = 650; i < h.size(); i += 11) {
+            LocalDate date = h.date(i);
+            assertEquals(TechnicalIndicators.simpleMovingAverage(h, date, 200),
+                    TechnicalIndicators.simpleMovingAverage(view, date, 200));
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.momentum.db;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.example.momentum.EtfHistory;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Decodes hand-built {@code COPY ... TO STDOUT (FORMAT binary)} streams.
+ */
+class PgBinaryCopyDecoderTest {
+
+    private static final int PG_EPOCH_DAY = (int) LocalDate.of(2000, 1, 1).toEpochDay();
+
+    /** Writes one COPY BINARY stream: header with an extension area, the tuples, the trailer. */
+    private static final class CopyStream {
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private final DataOutputStream out = new DataOutputStream(bytes);
+
+        CopyStream() throws IOException {
+            out.write(new byte[] {'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xFF, '\r', '\n', 0});
+            out.writeInt(0);                                // flags
+            out.writeInt(5);                                // header extension length
+            out.write(new byte[] {1, 2, 3, 4, 5});
+        }
+
+        CopyStream tuple() throws IOException {
+            return tuple(7);
+        }
+
+        CopyStream tuple(int fields) throws IOException {
+            out.writeShort(fields);
+            return this;
+        }
+
+        CopyStream text(String value) throws IOException {
+            byte[] b = value.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(b.length);
+            out.write(b);
+            return this;
+        }
+
+        CopyStream date(LocalDate value) throws IOException {
+            out.writeInt(4);
+            out.writeInt((int) value.toEpochDay() - PG_EPOCH_DAY);
+            return this;
+        }
+
+        CopyStream float8(double value) throws IOException {
+            out.writeInt(8);
+            out.writeDouble(value);
+            return this;
+        }
+
+        CopyStream float4(float value) throws IOException {
+            out.writeInt(4);
+            out.writeFloat(value);
+            return this;
+        }
+
+        // 123.45: two base-10000 digits (123, 4500), weight 0, positive, display scale 2
+        CopyStream numeric12345() throws IOException {
+            out.writeInt(12);
+            out.writeShort(2);
+            out.writeShort(0);
+            out.writeShort(0);
+            out.writeShort(2);
+            out.writeShort(123);
+            out.writeShort(4500);
+            return this;
+        }
+
+        CopyStream nul() throws IOException {
+            out.writeInt(-1);
+            return this;
+        }
+
+        CopyStream row(String symbol, LocalDate date, double o, double h, double l, double c, double v) throws IOException {
+            return tuple().text(symbol).date(date).float8(o).float8(h).float8(l).float8(c).float8(v);
+        }
+
+        Map<String, EtfHistory> decode() throws IOException {
+            out.writeShort(-1);                             // trailer
+            return PgBinaryCopyDecoder.decode(new ByteArrayInputStream(bytes.toByteArray()));
+        }
+    }
+
+    private static void assertBar(EtfHistory h, int index, LocalDate date, double o, double hi, double l, double c, double v) {
+        assertEquals(date, h.date(index));
+        assertEquals(o, h.open(index));
+        assertEquals(hi, h.high(index));
+        assertEquals(l, h.low(index));
+        assertEquals(c, h.close(index));
+        assertEquals(v, h.volume(index));
+    }
+
+    @Test
+    void decodesRowsIntoPerSymbolColumns() throws IOException {
+        LocalDate d1 = LocalDate.of(1999, 12, 31); // before the PostgreSQL epoch
+        LocalDate d2 = LocalDate.of(2024, 2, 29);
+        LocalDate d3 = LocalDate.of(2024, 3, 1);
+        Map<String, EtfHistory> result = new CopyStream()
+                .row("SPY", d1, 146.8, 147.5, 146.25, 146.875, 3.172e6)
+                .row("SPY", d2, 508.0, 509.74, 505.35, 508.08, 8.3e7)
+                .tuple().text("SPY").date(d3).float8(508.98).float8(513.29).float8(508.56).float8(512.85).nul()
+                .row("\u00c4X", d3, 1.5, 1.75, 1.25, 1.625, 0.0)
+                .decode();
+
+        assertEquals(2, result.size());
+        EtfHistory spy = result.get("SPY");
+        assertEquals("SPY", spy.getSymbol());
+        assertEquals(3, spy.size());
+        assertBar(spy, 0, d1, 146.8, 147.5, 146.25, 146.875, 3.172e6);
+        assertBar(spy, 1, d2, 508.0, 509.74, 505.35, 508.08, 8.3e7);
+        assertBar(spy, 2, d3, 508.98, 513.29, 508.56, 512.85, 0.0); // NULL volume reads as 0.0
+
+        EtfHistory other = result.get("\u00c4X");
+        assertEquals(1, other.size());
+        assertBar(other, 0, d3, 1.5, 1.75, 1.25, 1.625, 0.0);
+    }
+
+    @Test
+    void skipsRowsWithoutSymbolOrDate() throws IOException {
+        LocalDate d = LocalDate.of(2020, 6, 1);
+        Map<String, EtfHistory> result = new CopyStream()
+                .tuple().nul().date(d).float8(1).float8(1).float8(1).float8(1).float8(1)
+                .tuple().text("QQQ").nul().float8(2).float8(2).float8(2).float8(2).float8(2)
+                .row("QQQ", d, 3.0, 3.5, 2.5, 3.25, 100.0)
+                .decode();
+
+        assertEquals(1, result.size());
+        assertEquals(1, result.get("QQQ").size());
+        assertBar(result.get("QQQ"), 0, d, 3.0, 3.5, 2.5, 3.25, 100.0);
+    }
+
+    @Test
+    void nonFloat8FieldsReadAsZeroAndKeepTheStreamAligned() throws IOException {
+        // The query casts every price column to float8; any other width is skipped like a NULL
+        LocalDate d1 = LocalDate.of(2021, 1, 4);
+        LocalDate d2 = LocalDate.of(2021, 1, 5);
+        Map<String, EtfHistory> result = new CopyStream()
+                .tuple().text("IEF").date(d1).float4(117.5f).float8(118.0).float8(117.0).numeric12345().nul()
+                .row("IEF", d2, 117.25, 117.75, 116.75, 117.5, 2e6)
+                .decode();
+
+        EtfHistory ief = result.get("IEF");
+        assertEquals(2, ief.size());
+        assertBar(ief, 0, d1, 0.0, 118.0, 117.0, 0.0, 0.0);
+        assertBar(ief, 1, d2, 117.25, 117.75, 116.75, 117.5, 2e6);
+    }
+
+    @Test
+    void emptyCopyHasNoSymbols() throws IOException {
+        assertEquals(Map.of(), new CopyStream().decode());
+    }
+
+    @Test
+    void rejectsMalformedStreams() throws IOException {
+        assertThrows(IOException.class, () -> PgBinaryCopyDecoder.decode(new ByteArrayInputStream(new byte[0])));
+        assertThrows(IOException.class,
+                () -> PgBinaryCopyDecoder.decode(new ByteArrayInputStream("COPY 3\n".getBytes(StandardCharsets.US_ASCII))));
+        assertThrows(IOException.class, () -> new CopyStream().tuple(2).text("SPY").date(LocalDate.of(2020, 1, 2)).decode());
+        assertThrows(IOException.class, () -> new CopyStream().tuple().text("SPY").decode()); // truncated tuple
+    }
+}